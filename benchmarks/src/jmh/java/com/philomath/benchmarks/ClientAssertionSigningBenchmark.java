@@ -0,0 +1,57 @@
+package com.philomath.benchmarks;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.philomath.introspection.ClientAssertionSigner;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ClientAssertionSigner#sign} per algorithm: the cost every introspection pays for its
+ * client assertion (unless it is taken from the pre-signed pool).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClientAssertionSigningBenchmark {
+
+    @Param({"RS256", "PS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private ClientAssertionSigner signer;
+
+    @Setup
+    public void setUp() throws Exception {
+        signer = ClientAssertionSigner.create(JWSAlgorithm.parse(algorithm), generateKey(algorithm), "bench-kid",
+                "vite-test-api", "http://localhost:9090/realms/vite-test/protocol/openid-connect/token/introspect",
+                Duration.ofSeconds(60));
+    }
+
+    @Benchmark
+    public String sign() {
+        return signer.sign();
+    }
+
+    private static PrivateKey generateKey(String algorithm) throws Exception {
+        KeyPairGenerator generator;
+        switch (algorithm) {
+            case "ES256" -> {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            case "EdDSA" -> generator = KeyPairGenerator.getInstance("Ed25519");
+            default -> {
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+            }
+        }
+        return generator.generateKeyPair().getPrivate();
+    }
+}
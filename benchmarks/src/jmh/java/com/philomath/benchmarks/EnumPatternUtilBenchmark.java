@@ -0,0 +1,30 @@
+package com.philomath.benchmarks;
+
+import com.philomath.record.Staff;
+import com.philomath.utils.EnumPatternUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EnumPatternUtil#patternFor} for the two-constant {@code Staff.Gender} and a
+ * larger enum, to show how the cost grows with the number of constants.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnumPatternUtilBenchmark {
+
+    @Benchmark
+    public String gender() {
+        return EnumPatternUtil.patternFor(Staff.Gender.class);
+    }
+
+    @Benchmark
+    public String timeUnit() {
+        return EnumPatternUtil.patternFor(TimeUnit.class);
+    }
+}
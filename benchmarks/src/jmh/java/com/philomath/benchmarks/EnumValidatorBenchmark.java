@@ -0,0 +1,38 @@
+package com.philomath.benchmarks;
+
+import com.philomath.record.Staff;
+import com.philomath.record.validation.EnumValidator;
+import com.philomath.record.validation.ValidEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EnumValidator#isValid} on the {@code Staff.gender} constraint, for an accepted value,
+ * the last accepted value and a rejected one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnumValidatorBenchmark {
+
+    @Param({"M", "F", "X"})
+    public String value;
+
+    private EnumValidator validator;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        validator = new EnumValidator();
+        validator.initialize(Staff.class.getDeclaredField("gender").getAnnotation(ValidEnum.class));
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        // The validator never touches the context
+        return validator.isValid(value, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.philomath.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.philomath.error.ErrorResponses;
+import com.philomath.record.User;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the error bodies returned by GlobalExceptionHandler (through {@link ErrorResponses}), on
+ * their own and including serialization to the bytes that go on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GlobalExceptionHandlerBenchmark {
+
+    private static final String PARSE_ERROR =
+            "Cannot deserialize value of type `java.time.LocalTime` from String \"25:00:00\": Text '25:00:00' could not be parsed";
+
+    private ObjectWriter writer;
+    private Map<String, List<String>> violations;
+    private ConstraintViolationException constraintViolationException;
+    private IllegalStateException generalException;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        writer = mapper.writer();
+        violations = Map.of(
+                "productId", List.of("Product ID must be a positive number"),
+                "quantity", List.of("Quantity must be at least 1"),
+                "sku", List.of("SKU must be between 5 and 15 uppercase alphanumeric characters"),
+                "price", List.of("Price cannot be null", "Price must be greater than or equal to 0.01"));
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            Set<ConstraintViolation<User>> found = factory.getValidator().validate(new User("x", "not-an-email"));
+            constraintViolationException = new ConstraintViolationException(found);
+        }
+        generalException = new IllegalStateException("Something went wrong");
+    }
+
+    @Benchmark
+    public Object validationErrorResponse() {
+        return ErrorResponses.validationErrorResponse(violations);
+    }
+
+    @Benchmark
+    public byte[] validationErrorResponseSerialized() throws Exception {
+        return writer.writeValueAsBytes(ErrorResponses.validationErrorResponse(violations));
+    }
+
+    @Benchmark
+    public Object constraintViolationErrors() {
+        return ErrorResponses.constraintViolationErrors(constraintViolationException);
+    }
+
+    @Benchmark
+    public Object jsonParsingErrorResponse() {
+        return ErrorResponses.jsonParsingErrorResponse(PARSE_ERROR);
+    }
+
+    @Benchmark
+    public byte[] jsonParsingErrorResponseSerialized() throws Exception {
+        return writer.writeValueAsBytes(ErrorResponses.jsonParsingErrorResponse(PARSE_ERROR));
+    }
+
+    @Benchmark
+    public Object generalErrors() {
+        return ErrorResponses.generalErrors(generalException);
+    }
+}
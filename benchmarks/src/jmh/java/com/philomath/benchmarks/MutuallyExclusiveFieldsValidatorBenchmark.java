@@ -0,0 +1,86 @@
+package com.philomath.benchmarks;
+
+import com.philomath.record.validation.MutuallyExclusiveFields;
+import com.philomath.record.validation.MutuallyExclusiveFieldsValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MutuallyExclusiveFieldsValidator}: the direct {@code isValid} call, which is dominated
+ * by the two BeanUtils property lookups, and a full {@link Validator#validate} for an accepted
+ * and a rejected bean, which adds the violation building.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MutuallyExclusiveFieldsValidatorBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private MutuallyExclusiveFieldsValidator constraintValidator;
+    private Listing onlyIsin;
+    private Listing both;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        constraintValidator = new MutuallyExclusiveFieldsValidator();
+        constraintValidator.initialize(Listing.class.getAnnotation(MutuallyExclusiveFields.class));
+        onlyIsin = new Listing("US0378331005", null);
+        both = new Listing("US0378331005", "AAPL");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean isValidDirect() {
+        // The context is only used on the rejecting path
+        return constraintValidator.isValid(onlyIsin, null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Listing>> validateAccepted() {
+        return validator.validate(onlyIsin);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Listing>> validateRejected() {
+        return validator.validate(both);
+    }
+
+    /**
+     * Same constraint as {@code Department}, whose constructor is package-private.
+     */
+    @MutuallyExclusiveFields(firstField = "isin", secondField = "stockCode",
+            message = "Either ISIN or Stock Code must be provided, but not both")
+    public static class Listing {
+        private final String isin;
+        private final String stockCode;
+
+        public Listing(String isin, String stockCode) {
+            this.isin = isin;
+            this.stockCode = stockCode;
+        }
+
+        public String getIsin() {
+            return isin;
+        }
+
+        public String getStockCode() {
+            return stockCode;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.philomath.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.philomath.dto.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a {@link ProductDTO} through {@code ProductDTODeserializer}: tree parse, per-field
+ * conversion and Bean Validation. Invalid payloads throw {@code ProductDTOValidationException},
+ * so they also measure building the collected-violations map and the exception itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductDTODeserializerBenchmark {
+
+    @Param({"valid", "invalid", "mixed"})
+    public String payload;
+
+    private ObjectReader reader;
+    private byte[][] payloads;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        reader = mapper.readerFor(ProductDTO.class);
+        payloads = switch (payload) {
+            case "valid" -> new byte[][]{Payloads.VALID_PRODUCT};
+            case "invalid" -> new byte[][]{Payloads.INVALID_PRODUCT};
+            // One in four requests invalid, roughly what a public endpoint sees
+            case "mixed" -> new byte[][]{Payloads.VALID_PRODUCT, Payloads.VALID_PRODUCT,
+                    Payloads.VALID_PRODUCT, Payloads.INVALID_PRODUCT};
+            default -> throw new IllegalArgumentException(payload);
+        };
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        byte[] body = payloads[next];
+        next = next + 1 == payloads.length ? 0 : next + 1;
+        try {
+            return reader.readValue(body);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    static final class Payloads {
+        static final byte[] VALID_PRODUCT = """
+                {
+                  "productId": 1001,
+                  "quantity": 50,
+                  "createdAt": "2024-01-15T10:30:00+05:30",
+                  "manufactureDateAt": "2024-01-01",
+                  "expiryTime": "23:59:59",
+                  "price": 1299.99,
+                  "productName": "Wireless Headphones",
+                  "description": "Premium noise-cancelling wireless headphones",
+                  "sku": "WH1000XM5",
+                  "discount": 15.50
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        static final byte[] INVALID_PRODUCT = """
+                {
+                  "productId": "abc",
+                  "quantity": 0,
+                  "createdAt": "not-a-date",
+                  "manufactureDateAt": "2999-01-01",
+                  "expiryTime": "25:00:00",
+                  "price": "free",
+                  "productName": "X",
+                  "description": "short",
+                  "sku": "bad-sku",
+                  "discount": 150.00
+                }
+                """.getBytes(StandardCharsets.UTF_8);
+
+        private Payloads() {
+        }
+    }
+}
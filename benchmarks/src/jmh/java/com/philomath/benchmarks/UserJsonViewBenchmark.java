@@ -0,0 +1,56 @@
+package com.philomath.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.philomath.dto.Address;
+import com.philomath.dto.User;
+import com.philomath.dto.Views;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a fully populated {@link User} under each of its JsonViews, against plain
+ * serialization without a view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UserJsonViewBenchmark {
+
+    private User user;
+    private ObjectWriter noView;
+    private ObjectWriter endpoint1;
+    private ObjectWriter endpoint2;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+        noView = mapper.writer();
+        endpoint1 = mapper.writerWithView(Views.Endpoint1.class);
+        endpoint2 = mapper.writerWithView(Views.Endpoint2.class);
+        user = new User(1L, "john_doe", "john.doe@example.com", "John", "Doe", "+14155552671",
+                new Address("123 Main Street", "Springfield", "IL", "62701", "USA"),
+                "1990-05-15", "Engineering", new BigDecimal("85000.00"));
+    }
+
+    @Benchmark
+    public byte[] withoutView() throws Exception {
+        return noView.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] endpoint1View() throws Exception {
+        return endpoint1.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] endpoint2View() throws Exception {
+        return endpoint2.writeValueAsBytes(user);
+    }
+}
@@ -0,0 +1,66 @@
+package com.philomath.perf;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the bytes allocated by the request thread between entering and leaving the filter
+ * chain, for requests that carry the {@value #SCENARIO_HEADER} header.
+ * <p>
+ * Registered first in the chain by {@link PerfTestConfiguration}, so the figure covers security,
+ * deserialization, validation, the controller and serialization. Work handed to other threads
+ * is not counted.
+ */
+public class AllocationRecordingFilter extends OncePerRequestFilter {
+
+    public static final String SCENARIO_HEADER = "X-Perf-Scenario";
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+
+    public AllocationRecordingFilter() {
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM does not support per-thread allocation accounting");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getHeader(SCENARIO_HEADER) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            bytes.add(threads.getCurrentThreadAllocatedBytes() - before);
+            requests.increment();
+        }
+    }
+
+    public void reset() {
+        bytes.reset();
+        requests.reset();
+    }
+
+    public long bytesPerRequest() {
+        long count = requests.sum();
+        return count == 0 ? 0 : bytes.sum() / count;
+    }
+
+    public long requestCount() {
+        return requests.sum();
+    }
+}
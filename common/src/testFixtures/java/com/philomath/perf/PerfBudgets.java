@@ -0,0 +1,60 @@
+package com.philomath.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Budgets and run sizes from {@code perf-budgets.properties} on the test classpath.
+ * <p>
+ * Per scenario: {@code <name>.p99-ms} and {@code <name>.alloc-bytes}. Global:
+ * {@code warmup-requests} and {@code measured-requests}. The {@code perf.latency-factor} system
+ * property multiplies every latency budget (allocation budgets are hardware independent).
+ */
+public final class PerfBudgets {
+
+    private final Properties properties;
+    private final double latencyFactor;
+
+    private PerfBudgets(Properties properties, double latencyFactor) {
+        this.properties = properties;
+        this.latencyFactor = latencyFactor;
+    }
+
+    public static PerfBudgets load() {
+        Properties properties = new Properties();
+        try (InputStream in = PerfBudgets.class.getClassLoader().getResourceAsStream("perf-budgets.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("perf-budgets.properties not found on the test classpath");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read perf-budgets.properties", e);
+        }
+        return new PerfBudgets(properties, Double.parseDouble(System.getProperty("perf.latency-factor", "1")));
+    }
+
+    public int warmupRequests() {
+        return Integer.parseInt(properties.getProperty("warmup-requests", "1000"));
+    }
+
+    public int measuredRequests() {
+        return Integer.parseInt(properties.getProperty("measured-requests", "3000"));
+    }
+
+    public double p99Millis(String scenario) {
+        return Double.parseDouble(require(scenario + ".p99-ms")) * latencyFactor;
+    }
+
+    public long allocatedBytes(String scenario) {
+        return Long.parseLong(require(scenario + ".alloc-bytes"));
+    }
+
+    private String require(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("No budget " + key + " in perf-budgets.properties");
+        }
+        return value.trim();
+    }
+}
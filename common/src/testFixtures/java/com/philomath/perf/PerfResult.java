@@ -0,0 +1,24 @@
+package com.philomath.perf;
+
+/**
+ * Measured values for one scenario, next to the budgets they were checked against.
+ */
+public record PerfResult(
+        String scenario,
+        int requests,
+        double p50Millis,
+        double p99Millis,
+        double maxMillis,
+        long allocatedBytesPerRequest,
+        double p99BudgetMillis,
+        long allocatedBytesBudget
+) {
+
+    public boolean latencyWithinBudget() {
+        return p99Millis <= p99BudgetMillis;
+    }
+
+    public boolean allocationWithinBudget() {
+        return allocatedBytesPerRequest <= allocatedBytesBudget;
+    }
+}
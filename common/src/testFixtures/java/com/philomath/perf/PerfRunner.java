@@ -0,0 +1,167 @@
+package com.philomath.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Replays a {@link PerfScenario} against a running server and checks it against its budgets.
+ * <p>
+ * Requests are sent one at a time from a single client: the suite guards the cost of one
+ * request, not throughput, and sequential requests keep p99 free of queueing noise. Each
+ * scenario is warmed up first so the JIT has compiled the path before anything is measured.
+ */
+public class PerfRunner {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final AllocationRecordingFilter allocations;
+    private final PerfBudgets budgets;
+    private final List<PerfResult> results = new ArrayList<>();
+
+    public PerfRunner(String baseUrl, AllocationRecordingFilter allocations, PerfBudgets budgets) {
+        this.baseUrl = baseUrl;
+        this.allocations = allocations;
+        this.budgets = budgets;
+    }
+
+    /**
+     * Warm up, measure and record the scenario.
+     *
+     * @throws AssertionError if a response has an unexpected status or a budget is exceeded
+     */
+    public PerfResult runAndCheck(PerfScenario scenario) {
+        HttpRequest request = buildRequest(scenario);
+        for (int i = 0; i < budgets.warmupRequests(); i++) {
+            send(scenario, request);
+        }
+
+        allocations.reset();
+        long[] latencies = new long[budgets.measuredRequests()];
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            send(scenario, request);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        PerfResult result = new PerfResult(
+                scenario.name(),
+                latencies.length,
+                percentile(latencies, 50) / 1e6,
+                percentile(latencies, 99) / 1e6,
+                latencies[latencies.length - 1] / 1e6,
+                allocations.bytesPerRequest(),
+                budgets.p99Millis(scenario.name()),
+                budgets.allocatedBytes(scenario.name()));
+        synchronized (results) {
+            results.add(result);
+        }
+
+        List<String> failures = new ArrayList<>();
+        if (!result.latencyWithinBudget()) {
+            failures.add(String.format(Locale.ROOT, "p99 %.2f ms exceeds budget %.2f ms",
+                    result.p99Millis(), result.p99BudgetMillis()));
+        }
+        if (!result.allocationWithinBudget()) {
+            failures.add(String.format(Locale.ROOT, "%,d bytes allocated per request exceeds budget %,d",
+                    result.allocatedBytesPerRequest(), result.allocatedBytesBudget()));
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(scenario.name() + ": " + String.join("; ", failures));
+        }
+        return result;
+    }
+
+    /**
+     * Write every recorded result to {@code results.json} under the {@code perf.report-dir}
+     * system property, when it is set.
+     */
+    public void writeReport(String suite) {
+        String dir = System.getProperty("perf.report-dir");
+        if (dir == null) {
+            return;
+        }
+        StringBuilder json = new StringBuilder("[\n");
+        synchronized (results) {
+            for (int i = 0; i < results.size(); i++) {
+                PerfResult r = results.get(i);
+                json.append(String.format(Locale.ROOT,
+                        "  {\"suite\": \"%s\", \"scenario\": \"%s\", \"requests\": %d, \"p50Ms\": %.3f, \"p99Ms\": %.3f, "
+                                + "\"maxMs\": %.3f, \"allocBytesPerRequest\": %d, \"p99BudgetMs\": %.3f, \"allocBytesBudget\": %d}",
+                        suite, r.scenario(), r.requests(), r.p50Millis(), r.p99Millis(), r.maxMillis(),
+                        r.allocatedBytesPerRequest(), r.p99BudgetMillis(), r.allocatedBytesBudget()));
+                json.append(i < results.size() - 1 ? ",\n" : "\n");
+            }
+        }
+        json.append("]\n");
+        try {
+            Path out = Path.of(dir, suite + ".json");
+            Files.createDirectories(out.getParent());
+            Files.writeString(out, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest buildRequest(PerfScenario scenario) {
+        HttpRequest.BodyPublisher body = scenario.payloadResource() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(readPayload(scenario.payloadResource()));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + scenario.path()))
+                .timeout(Duration.ofSeconds(10))
+                .header(AllocationRecordingFilter.SCENARIO_HEADER, scenario.name())
+                .method(scenario.method(), body);
+        for (Map.Entry<String, String> header : scenario.headers().entrySet()) {
+            builder.header(header.getKey(), header.getValue());
+        }
+        return builder.build();
+    }
+
+    private void send(PerfScenario scenario, HttpRequest request) {
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + scenario.name(), e);
+        }
+        if (response.statusCode() != scenario.expectedStatus()) {
+            throw new AssertionError(scenario.name() + ": expected status " + scenario.expectedStatus()
+                    + " but got " + response.statusCode() + ": " + new String(response.body()));
+        }
+    }
+
+    private static byte[] readPayload(String resource) {
+        try (InputStream in = PerfRunner.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Recorded payload " + resource + " not found on the test classpath");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,44 @@
+package com.philomath.perf;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One endpoint call replayed by a perfTest suite.
+ *
+ * @param name            budget key in perf-budgets.properties
+ * @param method          HTTP method
+ * @param path            request path, relative to the server root
+ * @param payloadResource classpath resource holding the recorded request body, or {@code null}
+ * @param expectedStatus  status every replayed request must get back
+ * @param headers         extra request headers
+ */
+public record PerfScenario(
+        String name,
+        String method,
+        String path,
+        String payloadResource,
+        int expectedStatus,
+        Map<String, String> headers
+) {
+
+    public static PerfScenario get(String name, String path, int expectedStatus) {
+        return new PerfScenario(name, "GET", path, null, expectedStatus, Map.of());
+    }
+
+    public static PerfScenario post(String name, String path, String payloadResource, int expectedStatus) {
+        return new PerfScenario(name, "POST", path, payloadResource, expectedStatus, Map.of("Content-Type", "application/json"));
+    }
+
+    public PerfScenario withHeader(String header, String value) {
+        Map<String, String> merged = new LinkedHashMap<>(headers);
+        merged.put(header, value);
+        return new PerfScenario(name, method, path, payloadResource, expectedStatus, Map.copyOf(merged));
+    }
+
+    @Override
+    public String toString() {
+        // Used as the JUnit display name
+        return name;
+    }
+}
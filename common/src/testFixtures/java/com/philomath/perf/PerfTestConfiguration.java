@@ -0,0 +1,25 @@
+package com.philomath.perf;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+/**
+ * Import into a perfTest {@code @SpringBootTest} to measure allocation per request.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PerfTestConfiguration {
+
+    @Bean
+    AllocationRecordingFilter allocationRecordingFilter() {
+        return new AllocationRecordingFilter();
+    }
+
+    @Bean
+    FilterRegistrationBean<AllocationRecordingFilter> allocationRecordingFilterRegistration(AllocationRecordingFilter filter) {
+        FilterRegistrationBean<AllocationRecordingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,101 @@
+package com.philomath.loadgen;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Closed model: a fixed number of clients, each sending its next request only after the
+ * previous one completed, the way a pool of upstream workers or a connection-limited caller
+ * behaves.
+ * <p>
+ * With {@code --rate}, each client is paced to {@code rate / concurrency} requests per second
+ * and response times are measured from the paced schedule. A stall is then charged to the
+ * requests it delayed. Without a rate, clients send back to back and service time equals
+ * response time, because there is no schedule to fall behind.
+ */
+public class ClosedWorkload implements WorkloadModel {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final RequestMix mix;
+    private final int concurrency;
+    private final double ratePerSecond;
+
+    public ClosedWorkload(HttpClient client, String baseUrl, Duration timeout, RequestMix mix,
+                          int concurrency, double ratePerSecond) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("The closed model needs --concurrency > 0");
+        }
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.mix = mix;
+        this.concurrency = concurrency;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    @Override
+    public void run(Duration duration, LatencyStats stats) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        // Stagger the clients over one interval so paced clients don't fire in bursts
+        long intervalNanos = ratePerSecond > 0 ? (long) (concurrency * 1e9 / ratePerSecond) : 0;
+
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long firstStart = start + (intervalNanos * i) / concurrency;
+            Thread thread = new Thread(() -> drive(firstStart, end, intervalNanos, stats), "loadgen-client-" + i);
+            thread.setDaemon(true);
+            clients.add(thread);
+            thread.start();
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+    }
+
+    private void drive(long firstStart, long end, long intervalNanos, LatencyStats stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long intendedStart = firstStart;
+        while (intendedStart < end) {
+            long now;
+            while (intervalNanos > 0 && (now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+            RequestTemplate template = mix.next(random);
+            long sendNanos = System.nanoTime();
+            if (intervalNanos == 0) {
+                intendedStart = sendNanos;
+            }
+            HttpResponse<Void> response = null;
+            Throwable error = null;
+            try {
+                response = client.send(template.toRequest(baseUrl, timeout), HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                error = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long doneNanos = System.nanoTime();
+            stats.record(template.name(), intendedStart, sendNanos, doneNanos, response, error);
+            // When behind schedule the next request is due immediately; it keeps its intended
+            // start so the delay shows up in its response time
+            intendedStart = intervalNanos > 0 ? intendedStart + intervalNanos : doneNanos;
+        }
+    }
+
+    @Override
+    public String describe() {
+        return ratePerSecond > 0
+                ? String.format(java.util.Locale.ROOT, "closed, %d clients paced to %.1f req/s in total", concurrency, ratePerSecond)
+                : "closed, " + concurrency + " clients back to back";
+    }
+}
@@ -0,0 +1,93 @@
+package com.philomath.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes per request name.
+ * <p>
+ * Every request is recorded twice:
+ * <ul>
+ *     <li><b>service time</b>: from the moment the request was actually sent to its completion</li>
+ *     <li><b>response time</b>: from the moment the schedule <i>intended</i> to send it. When the
+ *     server stalls, the load generator falls behind schedule. Measuring from the intended start
+ *     charges that stall to every request that should have been sent during it. Measuring only
+ *     the requests that got through would hide the stall ("coordinated omission").</li>
+ * </ul>
+ * Response time is the coordinated-omission-corrected figure to plan capacity with.
+ */
+public class LatencyStats {
+
+    // Values in microseconds, up to 10 minutes, 3 significant digits
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public void record(String name, long intendedStartNanos, long sendNanos, long doneNanos,
+                       HttpResponse<?> response, Throwable error) {
+        Entry entry = entries.computeIfAbsent(name, k -> new Entry());
+        if (error != null) {
+            entry.errors.increment();
+        } else {
+            entry.statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+        }
+        entry.serviceTime.recordValue(clamp((doneNanos - sendNanos) / 1000));
+        entry.responseTime.recordValue(clamp((doneNanos - intendedStartNanos) / 1000));
+    }
+
+    public void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Copy of the recorded values, per request name in name order, plus {@code "all"}.
+     */
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        Histogram allService = new Histogram(HIGHEST_TRACKABLE, 3);
+        Histogram allResponse = new Histogram(HIGHEST_TRACKABLE, 3);
+        Map<Integer, Long> allStatuses = new TreeMap<>();
+        long allErrors = 0;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Snapshot s = e.getValue().snapshot();
+            snapshots.put(e.getKey(), s);
+            allService.add(s.serviceTime());
+            allResponse.add(s.responseTime());
+            s.statuses().forEach((status, count) -> allStatuses.merge(status, count, Long::sum));
+            allErrors += s.errors();
+        }
+        snapshots.put("all", new Snapshot(allService, allResponse, allStatuses, allErrors));
+        return snapshots;
+    }
+
+    private static long clamp(long micros) {
+        return Math.max(0, Math.min(micros, HIGHEST_TRACKABLE));
+    }
+
+    public record Snapshot(Histogram serviceTime, Histogram responseTime, Map<Integer, Long> statuses, long errors) {
+
+        public long requests() {
+            return responseTime.getTotalCount();
+        }
+    }
+
+    private static final class Entry {
+        final ConcurrentHistogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE, 3);
+        final ConcurrentHistogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE, 3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final LongAdder errors = new LongAdder();
+
+        Snapshot snapshot() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return new Snapshot(serviceTime.copy(), responseTime.copy(), counts, errors.sum());
+        }
+    }
+}
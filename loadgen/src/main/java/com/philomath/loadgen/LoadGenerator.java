@@ -0,0 +1,92 @@
+package com.philomath.loadgen;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Replays a weighted mix of microservice-1 requests against a running instance and reports
+ * throughput and latency percentiles.
+ * <pre>
+ * ./gradlew :loadgen:run --args='--model closed --concurrency 64 --duration-seconds 60'
+ * ./gradlew :loadgen:run --args='--model open --rate 1500 --arrivals poisson'
+ * </pre>
+ * Options:
+ * <ul>
+ *     <li>{@code --base-url} (default {@code http://localhost:8080})</li>
+ *     <li>{@code --model} {@code closed} (default) or {@code open}</li>
+ *     <li>{@code --concurrency} clients in the closed model (default 32)</li>
+ *     <li>{@code --rate} total requests per second; required for open, optional pacing for closed</li>
+ *     <li>{@code --arrivals} {@code constant} (default) or {@code poisson}, open model only</li>
+ *     <li>{@code --warmup-seconds} (default 10) and {@code --duration-seconds} (default 60)</li>
+ *     <li>{@code --mix} {@code name=weight,...} (default {@link RequestMix#DEFAULT_MIX})</li>
+ *     <li>{@code --timeout-ms} per request (default 10000)</li>
+ *     <li>{@code --out} report directory (default {@code build/reports/loadgen})</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String baseUrl = opts.getOrDefault("base-url", "http://localhost:8080");
+        String model = opts.getOrDefault("model", "closed");
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "32"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "0"));
+        boolean poisson = opts.getOrDefault("arrivals", "constant").equals("poisson");
+        Duration warmup = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup-seconds", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration-seconds", "60")));
+        Duration timeout = Duration.ofMillis(Long.parseLong(opts.getOrDefault("timeout-ms", "10000")));
+        RequestMix mix = RequestMix.parse(opts.getOrDefault("mix", RequestMix.DEFAULT_MIX));
+        Path out = Path.of(opts.getOrDefault("out", "build/reports/loadgen"));
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(callbacks)
+                .build();
+
+        WorkloadModel workload = switch (model) {
+            case "open" -> new OpenWorkload(client, baseUrl, timeout, mix, rate, poisson);
+            case "closed" -> new ClosedWorkload(client, baseUrl, timeout, mix, concurrency, rate);
+            default -> throw new IllegalArgumentException("--model must be open or closed, got " + model);
+        };
+
+        try {
+            LatencyStats stats = new LatencyStats();
+            if (!warmup.isZero()) {
+                System.out.println("Warming up for " + warmup.toSeconds() + "s: " + workload.describe());
+                workload.run(warmup, stats);
+                stats.reset();
+            }
+            System.out.println("Measuring for " + duration.toSeconds() + "s: " + workload.describe());
+            workload.run(duration, stats);
+
+            Map<String, LatencyStats.Snapshot> snapshots = stats.snapshot();
+            new ReportWriter(out).write(baseUrl, workload.describe(), duration, snapshots);
+
+            LatencyStats.Snapshot all = snapshots.get("all");
+            System.out.printf(Locale.ROOT, "%d requests (%.1f req/s), %d errors, response time p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    all.requests(), all.requests() / (double) duration.toSeconds(), all.errors(),
+                    all.responseTime().getValueAtPercentile(50) / 1000.0,
+                    all.responseTime().getValueAtPercentile(99) / 1000.0,
+                    all.responseTime().getMaxValue() / 1000.0);
+            System.out.println("Report: " + out.toAbsolutePath().resolve("report.html"));
+        } finally {
+            callbacks.shutdownNow();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+}
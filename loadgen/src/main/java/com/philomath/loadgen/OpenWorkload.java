@@ -0,0 +1,79 @@
+package com.philomath.loadgen;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open model: requests arrive at a fixed average rate, whether or not earlier ones have
+ * completed, the way independent users arrive at a public service.
+ * <p>
+ * Arrivals are evenly spaced ({@code constant}) or exponentially spaced ({@code poisson}).
+ * A slow server makes requests pile up instead of slowing the arrivals down. Response times are
+ * measured from each request's scheduled arrival, so they include any time the generator itself
+ * fell behind.
+ */
+public class OpenWorkload implements WorkloadModel {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final RequestMix mix;
+    private final double ratePerSecond;
+    private final boolean poisson;
+
+    public OpenWorkload(HttpClient client, String baseUrl, Duration timeout, RequestMix mix,
+                        double ratePerSecond, boolean poisson) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("The open model needs --rate > 0");
+        }
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.mix = mix;
+        this.ratePerSecond = ratePerSecond;
+        this.poisson = poisson;
+    }
+
+    @Override
+    public void run(Duration duration, LatencyStats stats) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double meanIntervalNanos = 1e9 / ratePerSecond;
+        AtomicLong outstanding = new AtomicLong();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double intended = start;
+        while (intended < end) {
+            long intendedStart = (long) intended;
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+            RequestTemplate template = mix.next(random);
+            HttpRequest request = template.toRequest(baseUrl, timeout);
+            outstanding.incrementAndGet();
+            long sendNanos = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        stats.record(template.name(), intendedStart, sendNanos, System.nanoTime(), response, error);
+                        outstanding.decrementAndGet();
+                    });
+            intended += poisson ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos : meanIntervalNanos;
+        }
+        // Every request completes or fails by its timeout
+        while (outstanding.get() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return String.format(java.util.Locale.ROOT, "open, %s arrivals at %.1f req/s",
+                poisson ? "poisson" : "constant", ratePerSecond);
+    }
+}
@@ -0,0 +1,213 @@
+package com.philomath.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes a run as {@code report.json}, {@code report.html} and HdrHistogram percentile
+ * distributions ({@code *.hgrm}, loadable in the HdrHistogram plotter).
+ */
+public class ReportWriter {
+
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99};
+
+    private final Path outDir;
+
+    public ReportWriter(Path outDir) {
+        this.outDir = outDir;
+    }
+
+    public void write(String baseUrl, String workload, Duration duration, Map<String, LatencyStats.Snapshot> snapshots)
+            throws IOException {
+        Files.createDirectories(outDir);
+        Files.writeString(outDir.resolve("report.json"), json(baseUrl, workload, duration, snapshots));
+        Files.writeString(outDir.resolve("report.html"), html(baseUrl, workload, duration, snapshots));
+        LatencyStats.Snapshot all = snapshots.get("all");
+        writeHgrm(outDir.resolve("response-time.hgrm"), all.responseTime());
+        writeHgrm(outDir.resolve("service-time.hgrm"), all.serviceTime());
+    }
+
+    private String json(String baseUrl, String workload, Duration duration, Map<String, LatencyStats.Snapshot> snapshots) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"generatedAt\": \"").append(Instant.now()).append("\",\n");
+        sb.append("  \"baseUrl\": \"").append(escape(baseUrl)).append("\",\n");
+        sb.append("  \"workload\": \"").append(escape(workload)).append("\",\n");
+        sb.append("  \"durationSeconds\": ").append(duration.toSeconds()).append(",\n");
+        sb.append("  \"latencyUnit\": \"ms\",\n");
+        sb.append("  \"requests\": {\n");
+        int i = 0;
+        for (Map.Entry<String, LatencyStats.Snapshot> e : snapshots.entrySet()) {
+            LatencyStats.Snapshot s = e.getValue();
+            sb.append("    \"").append(escape(e.getKey())).append("\": {\n");
+            sb.append("      \"count\": ").append(s.requests()).append(",\n");
+            sb.append(String.format(Locale.ROOT, "      \"throughput\": %.2f,%n", s.requests() / (double) duration.toSeconds()));
+            sb.append("      \"errors\": ").append(s.errors()).append(",\n");
+            sb.append("      \"statuses\": {");
+            int j = 0;
+            for (Map.Entry<Integer, Long> status : s.statuses().entrySet()) {
+                sb.append(j++ > 0 ? ", " : "").append('"').append(status.getKey()).append("\": ").append(status.getValue());
+            }
+            sb.append("},\n");
+            sb.append("      \"responseTime\": ").append(jsonPercentiles(s.responseTime())).append(",\n");
+            sb.append("      \"serviceTime\": ").append(jsonPercentiles(s.serviceTime())).append("\n");
+            sb.append("    }").append(++i < snapshots.size() ? "," : "").append('\n');
+        }
+        sb.append("  }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String jsonPercentiles(Histogram h) {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append(String.format(Locale.ROOT, "\"mean\": %.3f", h.getMean() / 1000));
+        for (double p : PERCENTILES) {
+            sb.append(String.format(Locale.ROOT, ", \"p%s\": %.3f", label(p), h.getValueAtPercentile(p) / 1000.0));
+        }
+        sb.append(String.format(Locale.ROOT, ", \"max\": %.3f}", h.getMaxValue() / 1000.0));
+        return sb.toString();
+    }
+
+    private String html(String baseUrl, String workload, Duration duration, Map<String, LatencyStats.Snapshot> snapshots) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n")
+                .append("<title>microservice-1 load report</title>\n")
+                .append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}")
+                .append("tr.all{font-weight:bold}</style>\n</head>\n<body>\n");
+        sb.append("<h1>Load report</h1>\n<p>").append(escapeHtml(baseUrl)).append(" &middot; ")
+                .append(escapeHtml(workload)).append(" &middot; ").append(duration.toSeconds()).append(" s measured &middot; ")
+                .append(Instant.now()).append("</p>\n");
+
+        sb.append("<h2>Response time (coordinated-omission corrected), ms</h2>\n");
+        latencyTable(sb, snapshots, true, duration);
+        sb.append("<h2>Service time (uncorrected), ms</h2>\n");
+        latencyTable(sb, snapshots, false, duration);
+
+        sb.append("<h2>Status codes</h2>\n<table>\n<tr><th>request</th><th>status</th><th>count</th></tr>\n");
+        for (Map.Entry<String, LatencyStats.Snapshot> e : snapshots.entrySet()) {
+            for (Map.Entry<Integer, Long> status : e.getValue().statuses().entrySet()) {
+                sb.append("<tr><td>").append(escapeHtml(e.getKey())).append("</td><td>").append(status.getKey())
+                        .append("</td><td>").append(status.getValue()).append("</td></tr>\n");
+            }
+            if (e.getValue().errors() > 0) {
+                sb.append("<tr><td>").append(escapeHtml(e.getKey())).append("</td><td>error</td><td>")
+                        .append(e.getValue().errors()).append("</td></tr>\n");
+            }
+        }
+        sb.append("</table>\n");
+
+        LatencyStats.Snapshot all = snapshots.get("all");
+        sb.append("<h2>Latency by percentile (all requests)</h2>\n");
+        sb.append(percentileChart(all.responseTime(), all.serviceTime()));
+        sb.append("</body>\n</html>\n");
+        return sb.toString();
+    }
+
+    private static void latencyTable(StringBuilder sb, Map<String, LatencyStats.Snapshot> snapshots, boolean responseTime,
+                                     Duration duration) {
+        sb.append("<table>\n<tr><th>request</th><th>count</th><th>req/s</th><th>mean</th>");
+        for (double p : PERCENTILES) {
+            sb.append("<th>p").append(label(p)).append("</th>");
+        }
+        sb.append("<th>max</th></tr>\n");
+        for (Map.Entry<String, LatencyStats.Snapshot> e : snapshots.entrySet()) {
+            Histogram h = responseTime ? e.getValue().responseTime() : e.getValue().serviceTime();
+            sb.append(e.getKey().equals("all") ? "<tr class=\"all\">" : "<tr>")
+                    .append("<td>").append(escapeHtml(e.getKey())).append("</td>")
+                    .append("<td>").append(h.getTotalCount()).append("</td>")
+                    .append(String.format(Locale.ROOT, "<td>%.1f</td><td>%.2f</td>",
+                            h.getTotalCount() / (double) duration.toSeconds(), h.getMean() / 1000));
+            for (double p : PERCENTILES) {
+                sb.append(String.format(Locale.ROOT, "<td>%.2f</td>", h.getValueAtPercentile(p) / 1000.0));
+            }
+            sb.append(String.format(Locale.ROOT, "<td>%.2f</td></tr>%n", h.getMaxValue() / 1000.0));
+        }
+        sb.append("</table>\n");
+    }
+
+    /**
+     * Inline SVG with percentile on a log "nines" axis (0, 90, 99, 99.9, ...) and latency on the
+     * vertical axis, the usual way to read a latency distribution's tail.
+     */
+    private static String percentileChart(Histogram responseTime, Histogram serviceTime) {
+        int width = 800;
+        int height = 360;
+        int pad = 50;
+        double maxNines = 5;
+        double maxMillis = Math.max(1, responseTime.getMaxValue() / 1000.0);
+
+        StringBuilder svg = new StringBuilder();
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(width).append("\" height=\"").append(height)
+                .append("\" font-size=\"11\">\n");
+        svg.append("<line x1=\"").append(pad).append("\" y1=\"").append(height - pad).append("\" x2=\"").append(width - pad)
+                .append("\" y2=\"").append(height - pad).append("\" stroke=\"#333\"/>\n");
+        svg.append("<line x1=\"").append(pad).append("\" y1=\"").append(pad / 2).append("\" x2=\"").append(pad)
+                .append("\" y2=\"").append(height - pad).append("\" stroke=\"#333\"/>\n");
+        String[] labels = {"0%", "90%", "99%", "99.9%", "99.99%", "99.999%"};
+        for (int n = 0; n <= maxNines; n++) {
+            double x = pad + n / maxNines * (width - 2 * pad);
+            svg.append(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%s</text>%n",
+                    x, height - pad + 16, labels[n]));
+        }
+        for (int t = 0; t <= 4; t++) {
+            double y = height - pad - t / 4.0 * (height - 1.5 * pad);
+            svg.append(String.format(Locale.ROOT, "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%.1f ms</text>%n",
+                    pad - 4, y + 4, maxMillis * t / 4));
+        }
+        svg.append(polyline(responseTime, "#c0392b", width, height, pad, maxNines, maxMillis));
+        svg.append(polyline(serviceTime, "#2980b9", width, height, pad, maxNines, maxMillis));
+        svg.append("<text x=\"").append(width - pad).append("\" y=\"").append(pad / 2 + 10)
+                .append("\" text-anchor=\"end\" fill=\"#c0392b\">response time (corrected)</text>\n");
+        svg.append("<text x=\"").append(width - pad).append("\" y=\"").append(pad / 2 + 24)
+                .append("\" text-anchor=\"end\" fill=\"#2980b9\">service time</text>\n");
+        svg.append("</svg>\n");
+        return svg.toString();
+    }
+
+    private static String polyline(Histogram h, String color, int width, int height, int pad, double maxNines, double maxMillis) {
+        if (h.getTotalCount() == 0) {
+            return "";
+        }
+        List<String> points = new ArrayList<>();
+        for (HistogramIterationValue v : h.percentiles(5)) {
+            double percentile = Math.min(v.getPercentileLevelIteratedTo(), 99.9999);
+            double nines = Math.min(maxNines, Math.log10(100 / (100 - percentile)));
+            double x = pad + nines / maxNines * (width - 2 * pad);
+            double y = height - pad - (v.getValueIteratedTo() / 1000.0) / maxMillis * (height - 1.5 * pad);
+            points.add(String.format(Locale.ROOT, "%.1f,%.1f", x, y));
+        }
+        return "<polyline fill=\"none\" stroke=\"" + color + "\" stroke-width=\"2\" points=\"" + String.join(" ", points) + "\"/>\n";
+    }
+
+    private static void writeHgrm(Path file, Histogram h) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            // Values were recorded in microseconds; the plotter expects milliseconds
+            h.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String label(double p) {
+        return p == Math.rint(p) ? Long.toString((long) p) : Double.toString(p);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String escapeHtml(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,123 @@
+package com.philomath.loadgen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted choice between request templates.
+ * <p>
+ * The catalog covers the microservice-1 endpoints with valid and invalid bodies from the
+ * {@code corpus/} resources. A mix is given as {@code name=weight,name=weight}; weights are
+ * relative, so {@code product-valid=3,product-invalid=1} sends one invalid product in four.
+ */
+public final class RequestMix {
+
+    public static final String DEFAULT_MIX = "product-valid=30,product-invalid=10,"
+            + "user-endpoint1-valid=12,user-endpoint1-invalid=4,"
+            + "user-endpoint2-valid=12,user-endpoint2-invalid=4,"
+            + "department-valid=4,department-invalid=2,"
+            + "product-get=8,stock-get=12,stock-update=2";
+
+    private static final Map<String, RequestTemplate> CATALOG = catalog();
+
+    private final RequestTemplate[] templates;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private RequestMix(RequestTemplate[] templates, int[] cumulativeWeights) {
+        this.templates = templates;
+        this.cumulativeWeights = cumulativeWeights;
+        this.totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+    }
+
+    public static RequestMix parse(String spec) {
+        List<RequestTemplate> templates = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entry must be name=weight: " + entry);
+            }
+            RequestTemplate template = CATALOG.get(parts[0].trim());
+            if (template == null) {
+                throw new IllegalArgumentException("Unknown request " + parts[0] + ", known: " + CATALOG.keySet());
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight <= 0) {
+                continue;
+            }
+            total += weight;
+            templates.add(template);
+            cumulative.add(total);
+        }
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no request with a positive weight: " + spec);
+        }
+        return new RequestMix(templates.toArray(RequestTemplate[]::new),
+                cumulative.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * A mix of templates outside the catalog, with equal weights.
+     */
+    public static RequestMix of(RequestTemplate... templates) {
+        int[] cumulative = new int[templates.length];
+        for (int i = 0; i < templates.length; i++) {
+            cumulative[i] = i + 1;
+        }
+        return new RequestMix(templates.clone(), cumulative);
+    }
+
+    public RequestTemplate next(RandomGenerator random) {
+        int pick = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return templates[i];
+            }
+        }
+        return templates[templates.length - 1];
+    }
+
+    public List<RequestTemplate> templates() {
+        return List.of(templates);
+    }
+
+    public static Set<String> knownRequests() {
+        return CATALOG.keySet();
+    }
+
+    private static Map<String, RequestTemplate> catalog() {
+        Map<String, RequestTemplate> catalog = new LinkedHashMap<>();
+        post(catalog, "product-valid", "/products/create", "product-valid.json");
+        post(catalog, "product-invalid", "/products/create", "product-invalid.json");
+        post(catalog, "user-endpoint1-valid", "/users/endpoint1", "user-endpoint1-valid.json");
+        post(catalog, "user-endpoint1-invalid", "/users/endpoint1", "user-endpoint1-invalid.json");
+        post(catalog, "user-endpoint2-valid", "/users/endpoint2", "user-endpoint2-valid.json");
+        post(catalog, "user-endpoint2-invalid", "/users/endpoint2", "user-endpoint2-invalid.json");
+        post(catalog, "department-valid", "/departments", "department-valid.json");
+        post(catalog, "department-invalid", "/departments", "department-invalid.json");
+        catalog.put("product-get", new RequestTemplate("product-get", "GET", "/products/1001", null));
+        catalog.put("stock-get", new RequestTemplate("stock-get", "GET", "/stocks/12345?isin=US0378331005", null));
+        catalog.put("stock-update", new RequestTemplate("stock-update", "PUT", "/stocks/12345?price=189.25", null));
+        return Collections.unmodifiableMap(catalog);
+    }
+
+    private static void post(Map<String, RequestTemplate> catalog, String name, String path, String corpusFile) {
+        catalog.put(name, new RequestTemplate(name, "POST", path, readCorpus(corpusFile)));
+    }
+
+    private static byte[] readCorpus(String file) {
+        try (InputStream in = RequestMix.class.getResourceAsStream("/corpus/" + file)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing corpus file " + file);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
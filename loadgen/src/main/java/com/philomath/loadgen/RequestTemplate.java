@@ -0,0 +1,34 @@
+package com.philomath.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * One kind of request in a mix, with its body read once from the corpus.
+ *
+ * @param name    name used in the mix specification and the report
+ * @param method  HTTP method
+ * @param path    request path, relative to the base URL
+ * @param body    request body, or {@code null}
+ * @param headers adds per-request headers, such as a different bearer token each time
+ */
+public record RequestTemplate(String name, String method, String path, byte[] body, Consumer<HttpRequest.Builder> headers) {
+
+    public RequestTemplate(String name, String method, String path, byte[] body) {
+        this(name, method, path, body, builder -> {
+        });
+    }
+
+    public HttpRequest toRequest(String baseUrl, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        headers.accept(builder);
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.philomath.loadgen;
+
+import java.time.Duration;
+
+/**
+ * How requests are issued over time.
+ */
+public interface WorkloadModel {
+
+    /**
+     * Issue requests for {@code duration}, record them into {@code stats} and return once every
+     * issued request has completed or timed out.
+     */
+    void run(Duration duration, LatencyStats stats) throws InterruptedException;
+
+    String describe();
+}
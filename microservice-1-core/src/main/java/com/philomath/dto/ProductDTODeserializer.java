@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.philomath.metrics.RequestStage;
+import com.philomath.metrics.RequestStageTimings;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -150,6 +152,7 @@ public class ProductDTODeserializer extends JsonDeserializer<ProductDTO> {
         }
 
         // Validate constraints even if there were deserialization errors
+        long validateStart = System.nanoTime();
         try (var validatorFactory = Validation.buildDefaultValidatorFactory()) {
             Validator validator = validatorFactory.getValidator();
             Set<ConstraintViolation<ProductDTO>> constraintViolations = validator.validate(dto);
@@ -157,6 +160,8 @@ public class ProductDTODeserializer extends JsonDeserializer<ProductDTO> {
                 violations.computeIfAbsent(violation.getPropertyPath().toString(), k -> new ArrayList<>())
                         .add(violation.getMessage());
             }
+        } finally {
+            RequestStageTimings.record(RequestStage.VALIDATE, System.nanoTime() - validateStart);
         }
 
         // If there are any violations, throw a custom exception
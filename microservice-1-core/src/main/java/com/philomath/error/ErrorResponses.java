@@ -0,0 +1,160 @@
+package com.philomath.error;
+
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Payload;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.method.ParameterErrors;
+import org.springframework.validation.method.ParameterValidationResult;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Error response bodies shared by the servlet (GlobalExceptionHandler) and reactive
+ * (ReactiveExceptionHandler) builds, so clients see identical error shapes from both.
+ */
+public final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    /**
+     * Structured response for field violations grouped by field name.
+     */
+    public static ValidationErrorResponse validationErrorResponse(Map<String, List<String>> violations) {
+        ValidationErrorResponse errorResponse = new ValidationErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(HttpStatus.BAD_REQUEST.value());
+        errorResponse.setError("Validation Failed");
+        errorResponse.setMessage("Please correct the following field errors");
+        errorResponse.setViolations(violations);
+        errorResponse.setTotalViolations(
+                violations.values().stream().mapToInt(List::size).sum()
+        );
+
+        return errorResponse;
+    }
+
+    public static Map<String, String> handlerMethodValidationErrors(HandlerMethodValidationException ex) {
+        Map<String, String> errorMessages = new HashMap<>();
+        ex.visitResults(new HandlerMethodValidationException.Visitor() {
+
+            @Override
+            public void requestParam(RequestParam requestParam, ParameterValidationResult result) {
+                addMessagesFromResult(result);
+            }
+
+            @Override
+            public void requestPart(RequestPart requestPart, ParameterErrors errors) {
+                for (ObjectError error : errors.getAllErrors()) {
+                    errorMessages.put(error.getObjectName(), error.getDefaultMessage());
+                }
+            }
+
+            @Override
+            public void requestHeader(RequestHeader requestHeader, ParameterValidationResult result) {
+                addMessagesFromResult(result);
+            }
+
+            @Override
+            public void cookieValue(CookieValue cookieValue, ParameterValidationResult result) {
+                addMessagesFromResult(result);
+            }
+
+            @Override
+            public void matrixVariable(MatrixVariable matrixVariable, ParameterValidationResult result) {
+                addMessagesFromResult(result);
+            }
+
+            @Override
+            public void modelAttribute(ModelAttribute modelAttribute, ParameterErrors errors) {
+                // Iterate over List<ObjectError> from getAllErrors()
+                for (ObjectError error : errors.getAllErrors()) {
+                    errorMessages.put(error.getObjectName(), error.getDefaultMessage());
+                }
+            }
+
+            @Override
+            public void pathVariable(PathVariable pathVariable, ParameterValidationResult result) {
+                addMessagesFromResult(result);
+            }
+
+            @Override
+            public void requestBody(RequestBody requestBody, ParameterErrors errors) {
+                for (ObjectError error : errors.getAllErrors()) {
+                    errorMessages.put(error.getObjectName(), error.getDefaultMessage());
+                }
+            }
+
+            @Override
+            public void other(ParameterValidationResult result) {
+                addMessagesFromResult(result);
+            }
+
+            private void addMessagesFromResult(ParameterValidationResult result) {
+                List<? extends MessageSourceResolvable> errors = result.getResolvableErrors();
+                for (MessageSourceResolvable error : errors) {
+                    errorMessages.put(error.getClass().getName(), error.getDefaultMessage());
+                }
+            }
+        });
+        return errorMessages;
+    }
+
+    public static Map<String, String> constraintViolationErrors(ConstraintViolationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getConstraintViolations().forEach(cv -> {
+            // Get the payload class
+            Optional<Class<? extends Payload>> payloadClass = cv.getConstraintDescriptor().getPayload().stream().findFirst();
+            String payloadClassname = payloadClass.map(Class::getSimpleName).orElse(null);
+            // Combine the payload class name with the message
+            String errorMessage = payloadClassname != null ?
+                    payloadClassname + ": " + cv.getMessage() : cv.getMessage();
+            errors.put(cv.getPropertyPath().toString(), errorMessage);
+        });
+        return errors;
+    }
+
+    public static JsonParsingErrorResponse jsonParsingErrorResponse(String errorMessage) {
+        String fieldName = "unknown";
+
+        // Try to extract field name from error message
+        // Example: "Cannot deserialize value of type `java.time.LocalTime` from String \"25:00:00\""
+        if (errorMessage != null) {
+            int idx = errorMessage.indexOf("from String");
+            if (idx > 0) {
+                int typeStartIdx = errorMessage.indexOf("`java.time.");
+                if (typeStartIdx > 0) {
+                    int typeEndIdx = errorMessage.indexOf("`", typeStartIdx + 1);
+                    if (typeEndIdx > 0) {
+                        String fullType = errorMessage.substring(typeStartIdx + 1, typeEndIdx);
+                        fieldName = fullType.substring(fullType.lastIndexOf('.') + 1);
+                    }
+                }
+            }
+        }
+
+        JsonParsingErrorResponse errorResponse = new JsonParsingErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(HttpStatus.BAD_REQUEST.value());
+        errorResponse.setError("Invalid JSON Format");
+        errorResponse.setMessage(errorMessage);
+        errorResponse.setFieldType(fieldName);
+
+        return errorResponse;
+    }
+
+    public static Map<String, String> generalErrors(Exception ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("error", ex.getClass().getSimpleName());
+        errors.put("message", ex.getMessage());
+        return errors;
+    }
+}
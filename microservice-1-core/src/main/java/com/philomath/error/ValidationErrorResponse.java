@@ -0,0 +1,66 @@
+package com.philomath.error;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structured validation error response
+ */
+public class ValidationErrorResponse {
+    private LocalDateTime timestamp;
+    private int status;
+    private String error;
+    private String message;
+    private Map<String, List<String>> violations;
+    private int totalViolations;
+
+    // Getters and Setters
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Map<String, List<String>> getViolations() {
+        return violations;
+    }
+
+    public void setViolations(Map<String, List<String>> violations) {
+        this.violations = violations;
+    }
+
+    public int getTotalViolations() {
+        return totalViolations;
+    }
+
+    public void setTotalViolations(int totalViolations) {
+        this.totalViolations = totalViolations;
+    }
+}
@@ -0,0 +1,37 @@
+package com.philomath.metrics;
+
+/**
+ * Stages of a request that are timed separately.
+ */
+public enum RequestStage {
+    /**
+     * Time blocked reading the request body from the connection
+     */
+    BODY_READ,
+    /**
+     * Jackson deserialization, including custom deserializers such as ProductDTODeserializer
+     */
+    DESERIALIZE,
+    /**
+     * Bean Validation, both {@code @Valid} bodies and the validation inside ProductDTODeserializer
+     */
+    VALIDATE,
+    /**
+     * The controller method itself (handler time minus the nested stages)
+     */
+    HANDLE,
+    /**
+     * Mapping an exception to a response in GlobalExceptionHandler (minus serialization)
+     */
+    EXCEPTION_MAPPING,
+    /**
+     * Writing the response body with Jackson
+     */
+    SERIALIZE;
+
+    private final String tagValue = name().toLowerCase(java.util.Locale.ROOT);
+
+    public String tagValue() {
+        return tagValue;
+    }
+}
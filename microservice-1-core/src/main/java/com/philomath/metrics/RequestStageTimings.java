@@ -0,0 +1,83 @@
+package com.philomath.metrics;
+
+/**
+ * Per-request accumulator of stage durations.
+ * <p>
+ * Bound to the request thread by RequestStageMetricsFilter of the servlet build; code anywhere on
+ * the request path (message converters, validators, deserializers) adds to it through
+ * {@link #record}, which is a no-op outside an instrumented request. Stages can run more than
+ * once per request (several validations, an error body after a failed read), so durations
+ * accumulate.
+ */
+public final class RequestStageTimings {
+
+    private static final ThreadLocal<RequestStageTimings> CURRENT = new ThreadLocal<>();
+
+    private final long[] nanos = new long[RequestStage.values().length];
+    private long handleStart = -1;
+    private long nestedAtHandleStart;
+
+    private RequestStageTimings() {
+    }
+
+    /**
+     * Bind fresh timings to the current thread; paired with {@link #end()}.
+     */
+    public static RequestStageTimings begin() {
+        RequestStageTimings timings = new RequestStageTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the timings of the request being processed on this thread, or {@code null}
+     */
+    public static RequestStageTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void record(RequestStage stage, long elapsedNanos) {
+        RequestStageTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.add(stage, elapsedNanos);
+        }
+    }
+
+    public void add(RequestStage stage, long elapsedNanos) {
+        nanos[stage.ordinal()] += elapsedNanos;
+    }
+
+    public long get(RequestStage stage) {
+        return nanos[stage.ordinal()];
+    }
+
+    /**
+     * Start of the handler window (argument resolution, controller method, return value handling).
+     */
+    public void openHandle() {
+        handleStart = System.nanoTime();
+        nestedAtHandleStart = nested();
+    }
+
+    /**
+     * End of the handler window. The stages measured inside the window are subtracted, so
+     * {@link RequestStage#HANDLE} is the time spent in the controller method itself.
+     */
+    public void closeHandle() {
+        if (handleStart < 0) {
+            return;
+        }
+        long window = System.nanoTime() - handleStart;
+        add(RequestStage.HANDLE, Math.max(0, window - (nested() - nestedAtHandleStart)));
+        handleStart = -1;
+    }
+
+    private long nested() {
+        return get(RequestStage.BODY_READ) + get(RequestStage.DESERIALIZE)
+                + get(RequestStage.VALIDATE) + get(RequestStage.SERIALIZE);
+    }
+}
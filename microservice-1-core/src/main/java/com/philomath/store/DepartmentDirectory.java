@@ -0,0 +1,188 @@
+package com.philomath.store;
+
+import com.philomath.record.Department;
+import com.philomath.record.Staff;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory department directory indexed by code, ISIN and stock code, with a reverse
+ * index from staff username/email to the departments they belong to.
+ * <p>
+ * Reads never lock: every lookup goes against an immutable {@link Snapshot} published through
+ * a volatile field. Writes are serialized, rebuild the affected index entries on a copy and
+ * publish the new snapshot in one step, so readers always see a consistent set of indexes.
+ * <p>
+ * Membership lookups ("which departments is this user in") are a single hash lookup instead of
+ * a scan over every department's {@code staffs} list.
+ * <p>
+ * ISIN and stock code are not unique across departments, so like staff membership they index
+ * every department that carries them. Replacing one of those departments leaves the others
+ * findable.
+ */
+@Component
+public class DepartmentDirectory {
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Store (or replace, keyed by code) a department and re-index its staff.
+     *
+     * @param department validated department
+     * @return the stored department
+     */
+    public Department save(Department department) {
+        synchronized (writeLock) {
+            snapshot = snapshot.with(department);
+        }
+        return department;
+    }
+
+    public Optional<Department> findByCode(String code) {
+        return Optional.ofNullable(snapshot.byCode().get(code));
+    }
+
+    /**
+     * @return the department saved first among those with this ISIN
+     */
+    public Optional<Department> findByIsin(String isin) {
+        return first(snapshot.byIsin().get(isin));
+    }
+
+    /**
+     * @return the department saved first among those with this stock code
+     */
+    public Optional<Department> findByStockCode(String stockCode) {
+        return first(snapshot.byStockCode().get(stockCode));
+    }
+
+    public List<Department> findByStaffUsername(String username) {
+        return snapshot.byUsername().getOrDefault(username, List.of());
+    }
+
+    public List<Department> findByStaffEmail(String email) {
+        return snapshot.byEmail().getOrDefault(normalizeEmail(email), List.of());
+    }
+
+    /**
+     * Current point-in-time view of the directory. Safe to hold on to and read from any thread.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    private static Optional<Department> first(List<Department> departments) {
+        return departments == null ? Optional.empty() : Optional.of(departments.get(0));
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Immutable set of indexes. A new instance is built for every write.
+     */
+    public record Snapshot(
+            Map<String, Department> byCode,
+            Map<String, List<Department>> byIsin,
+            Map<String, List<Department>> byStockCode,
+            Map<String, List<Department>> byUsername,
+            Map<String, List<Department>> byEmail
+    ) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+        Snapshot with(Department department) {
+            Map<String, Department> codes = new HashMap<>(byCode);
+            Map<String, List<Department>> isins = new HashMap<>(byIsin);
+            Map<String, List<Department>> stockCodes = new HashMap<>(byStockCode);
+            Map<String, List<Department>> usernames = new HashMap<>(byUsername);
+            Map<String, List<Department>> emails = new HashMap<>(byEmail);
+
+            // Replacing a department: drop every index entry that still points at the old instance
+            Department previous = codes.put(department.getCode(), department);
+            if (previous != null) {
+                if (previous.getIsin() != null) {
+                    removeMember(isins, previous.getIsin(), previous);
+                }
+                if (previous.getStockCode() != null) {
+                    removeMember(stockCodes, previous.getStockCode(), previous);
+                }
+                for (String username : usernamesOf(previous)) {
+                    removeMember(usernames, username, previous);
+                }
+                for (String email : emailsOf(previous)) {
+                    removeMember(emails, email, previous);
+                }
+            }
+
+            if (department.getIsin() != null) {
+                addMember(isins, department.getIsin(), department);
+            }
+            if (department.getStockCode() != null) {
+                addMember(stockCodes, department.getStockCode(), department);
+            }
+            for (String username : usernamesOf(department)) {
+                addMember(usernames, username, department);
+            }
+            for (String email : emailsOf(department)) {
+                addMember(emails, email, department);
+            }
+
+            return new Snapshot(
+                    Collections.unmodifiableMap(codes),
+                    Collections.unmodifiableMap(isins),
+                    Collections.unmodifiableMap(stockCodes),
+                    Collections.unmodifiableMap(usernames),
+                    Collections.unmodifiableMap(emails)
+            );
+        }
+
+        private static Set<String> usernamesOf(Department department) {
+            Set<String> usernames = new LinkedHashSet<>();
+            for (Staff staff : staffsOf(department)) {
+                if (staff != null && staff.getUsername() != null) {
+                    usernames.add(staff.getUsername());
+                }
+            }
+            return usernames;
+        }
+
+        private static Set<String> emailsOf(Department department) {
+            Set<String> emails = new LinkedHashSet<>();
+            for (Staff staff : staffsOf(department)) {
+                if (staff != null && staff.getEmail() != null) {
+                    emails.add(normalizeEmail(staff.getEmail()));
+                }
+            }
+            return emails;
+        }
+
+        private static List<Staff> staffsOf(Department department) {
+            return department.getStaffs() != null ? department.getStaffs() : List.of();
+        }
+
+        private static void addMember(Map<String, List<Department>> index, String key, Department department) {
+            List<Department> current = index.getOrDefault(key, List.of());
+            List<Department> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(department);
+            index.put(key, Collections.unmodifiableList(updated));
+        }
+
+        private static void removeMember(Map<String, List<Department>> index, String key, Department department) {
+            List<Department> current = index.get(key);
+            if (current == null) {
+                return;
+            }
+            List<Department> updated = new ArrayList<>(current);
+            updated.removeIf(d -> d == department);
+            if (updated.isEmpty()) {
+                index.remove(key);
+            } else {
+                index.put(key, Collections.unmodifiableList(updated));
+            }
+        }
+    }
+}
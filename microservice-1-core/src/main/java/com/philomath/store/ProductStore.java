@@ -0,0 +1,38 @@
+package com.philomath.store;
+
+import com.philomath.dto.ProductDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory product store keyed by product ID. Every write gets a new version from a
+ * store-wide counter, which is what product ETags are derived from.
+ */
+@Component
+public class ProductStore {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<Long, Versioned<ProductDTO>> products = new ConcurrentHashMap<>();
+
+    public Versioned<ProductDTO> save(ProductDTO product) {
+        long version = versions.incrementAndGet();
+        Versioned<ProductDTO> stored = new Versioned<>(product, version, Versioned.etagOf(epoch, version));
+        products.put(product.getProductId(), stored);
+        return stored;
+    }
+
+    public Versioned<ProductDTO> find(Long productId) {
+        return products.get(productId);
+    }
+
+    /**
+     * ETag for products that were never written (version 0).
+     */
+    public String unversionedEtag() {
+        return Versioned.etagOf(epoch, 0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.philomath.store;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stock quotes keyed by stock code, versioned like {@link ProductStore}.
+ * Stock codes that were never quoted resolve to a default quote at version 0.
+ */
+@Component
+public class StockStore {
+
+    static final BigDecimal DEFAULT_PRICE = new BigDecimal("123.45");
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong versions = new AtomicLong();
+    private final Map<String, Versioned<StockQuote>> quotes = new ConcurrentHashMap<>();
+
+    public Versioned<StockQuote> save(String stockCode, BigDecimal price) {
+        long version = versions.incrementAndGet();
+        Versioned<StockQuote> stored =
+                new Versioned<>(new StockQuote(stockCode, price), version, Versioned.etagOf(epoch, version));
+        quotes.put(stockCode, stored);
+        return stored;
+    }
+
+    public Versioned<StockQuote> find(String stockCode) {
+        Versioned<StockQuote> stored = quotes.get(stockCode);
+        if (stored != null) {
+            return stored;
+        }
+        return new Versioned<>(new StockQuote(stockCode, DEFAULT_PRICE), 0, Versioned.etagOf(epoch, 0));
+    }
+
+    public record StockQuote(String stockCode, BigDecimal price) {
+    }
+}
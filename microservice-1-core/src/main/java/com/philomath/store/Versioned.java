@@ -0,0 +1,18 @@
+package com.philomath.store;
+
+/**
+ * A stored value together with the version it was written at and the strong ETag derived from it.
+ * <p>
+ * The ETag is built once on write, so conditional reads can be answered without touching
+ * (or serializing) the value.
+ */
+public record Versioned<T>(T value, long version, String etag) {
+
+    /**
+     * Strong ETag for a version issued by a store. The epoch distinguishes store instances, so a
+     * version number reused after a restart never matches a tag handed out before it.
+     */
+    static String etagOf(String epoch, long version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+}
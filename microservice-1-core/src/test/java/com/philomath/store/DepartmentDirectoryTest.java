@@ -0,0 +1,102 @@
+package com.philomath.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.philomath.record.Department;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DepartmentDirectoryTest {
+
+    // Department's constructor is package-private; build them the way the controllers receive them
+    private static final ObjectMapper MAPPER = JsonMapper.builder().findAndAddModules().build();
+
+    private final DepartmentDirectory directory = new DepartmentDirectory();
+
+    @Test
+    void findsByEveryIndex() {
+        Department finance = directory.save(department("FINC", "US0378331005", null, "alice", "Alice@Example.com"));
+        Department trading = directory.save(department("TRAD", null, "12345", "bob", "bob@example.com"));
+
+        assertSame(finance, directory.findByCode("FINC").orElseThrow());
+        assertSame(finance, directory.findByIsin("US0378331005").orElseThrow());
+        assertSame(trading, directory.findByStockCode("12345").orElseThrow());
+        assertEquals(List.of(finance), directory.findByStaffUsername("alice"));
+        assertEquals(List.of(finance), directory.findByStaffEmail("alice@example.com"));
+        assertEquals(Optional.empty(), directory.findByCode("NONE"));
+        assertTrue(directory.findByStaffUsername("carol").isEmpty());
+    }
+
+    @Test
+    void replacingADepartmentDropsItsOldIndexEntries() {
+        directory.save(department("FINC", "US0378331005", null, "alice", "alice@example.com"));
+        Department replaced = directory.save(department("FINC", null, "12345", "bob", "bob@example.com"));
+
+        assertSame(replaced, directory.findByCode("FINC").orElseThrow());
+        assertTrue(directory.findByIsin("US0378331005").isEmpty());
+        assertSame(replaced, directory.findByStockCode("12345").orElseThrow());
+        assertTrue(directory.findByStaffUsername("alice").isEmpty());
+        assertTrue(directory.findByStaffEmail("alice@example.com").isEmpty());
+        assertEquals(List.of(replaced), directory.findByStaffUsername("bob"));
+    }
+
+    @Test
+    void sharedIsinKeepsEveryDepartmentIndexed() {
+        Department finance = directory.save(department("FINC", "US0378331005", null, "alice", "alice@example.com"));
+        directory.save(department("AUDT", "US0378331005", null, "alice", "alice@example.com"));
+
+        assertSame(finance, directory.findByIsin("US0378331005").orElseThrow());
+
+        // Moving FINC off the ISIN leaves AUDT findable by it
+        directory.save(department("FINC", null, "12345", "alice", "alice@example.com"));
+
+        assertEquals("AUDT", directory.findByIsin("US0378331005").orElseThrow().getCode());
+        assertEquals(2, directory.findByStaffUsername("alice").size());
+    }
+
+    @Test
+    void sharedStockCodeKeepsEveryDepartmentIndexed() {
+        directory.save(department("FINC", null, "12345", "alice", "alice@example.com"));
+        Department audit = directory.save(department("AUDT", null, "12345", "bob", "bob@example.com"));
+
+        directory.save(department("FINC", "US0378331005", null, "alice", "alice@example.com"));
+
+        assertSame(audit, directory.findByStockCode("12345").orElseThrow());
+    }
+
+    @Test
+    void snapshotIsNotAffectedByLaterWrites() {
+        directory.save(department("FINC", "US0378331005", null, "alice", "alice@example.com"));
+        DepartmentDirectory.Snapshot before = directory.snapshot();
+
+        directory.save(department("AUDT", "US0378331005", null, "alice", "alice@example.com"));
+
+        assertEquals(1, before.byCode().size());
+        assertEquals(1, before.byIsin().get("US0378331005").size());
+        assertEquals(1, before.byUsername().get("alice").size());
+        assertEquals(2, directory.snapshot().byIsin().get("US0378331005").size());
+    }
+
+    private static Department department(String code, String isin, String stockCode, String username, String email) {
+        String json = """
+                {"code":"%s","name":"Department %s","description":"Test department",
+                 "isin":%s,"stockCode":%s,
+                 "staffs":[{"username":"%s","email":"%s"}]}
+                """.formatted(code, code, quoted(isin), quoted(stockCode), username, email);
+        try {
+            return MAPPER.readValue(json, Department.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String quoted(String value) {
+        return value == null ? "null" : "\"" + value + "\"";
+    }
+}
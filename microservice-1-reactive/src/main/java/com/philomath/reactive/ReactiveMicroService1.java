@@ -0,0 +1,23 @@
+package com.philomath.reactive;
+
+import com.philomath.store.DepartmentDirectory;
+import com.philomath.store.ProductStore;
+import com.philomath.store.StockStore;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Reactive (WebFlux on Netty) build of the microservice-1 endpoints.
+ * <p>
+ * The stores it shares with the servlet build come from microservice-1-core and are imported
+ * explicitly, since they sit outside this application's package.
+ */
+@SpringBootApplication
+@Import({DepartmentDirectory.class, ProductStore.class, StockStore.class})
+public class ReactiveMicroService1 {
+    public static void main(String[] args) {
+        SpringApplication springApplication = new SpringApplication(ReactiveMicroService1.class);
+        springApplication.run(args);
+    }
+}
@@ -0,0 +1,32 @@
+package com.philomath.reactive.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@EnableConfigurationProperties(ValidationSchedulerConfig.ValidationProps.class)
+public class ValidationSchedulerConfig {
+
+    /**
+     * Scheduler for CPU-bound request work (Jackson deserialization and Bean Validation).
+     * Threads are capped at the CPU count and the task queue is bounded, so a burst of large
+     * bodies is rejected instead of starving the Netty event loops or growing without limit.
+     */
+    @Bean(destroyMethod = "dispose")
+    Scheduler validationScheduler(ValidationProps props) {
+        int threads = props.threads() > 0 ? props.threads() : Runtime.getRuntime().availableProcessors();
+        return Schedulers.newBoundedElastic(threads, props.queueCapacity(), "validation");
+    }
+
+    @ConfigurationProperties(prefix = "app.reactive.validation")
+    public record ValidationProps(
+            @DefaultValue("0") int threads,
+            @DefaultValue("10000") int queueCapacity
+    ) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.philomath.reactive.controller;
+
+import com.philomath.dto.ProductDTOValidationException;
+import com.philomath.error.ErrorResponses;
+import com.philomath.error.JsonParsingErrorResponse;
+import com.philomath.error.ValidationErrorResponse;
+import com.philomath.reactive.web.BodyValidationException;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive counterpart of GlobalExceptionHandler. Every response body is built by the same
+ * ErrorResponses builders, so clients see identical error shapes from both builds.
+ */
+@RestControllerAdvice(basePackages = "com.philomath.reactive.controller")
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(ProductDTOValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse handleProductDTOValidationException(ProductDTOValidationException ex) {
+        return ErrorResponses.validationErrorResponse(ex.getViolations());
+    }
+
+    @ExceptionHandler(BodyValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse handleBodyValidationException(BodyValidationException ex) {
+        return ErrorResponses.validationErrorResponse(ex.getViolations());
+    }
+
+    // Reactive equivalent of MethodArgumentNotValidException
+    @ExceptionHandler(WebExchangeBindException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ValidationErrorResponse handleWebExchangeBindException(WebExchangeBindException ex) {
+        Map<String, List<String>> violations = ex.getBindingResult()
+                .getFieldErrors()
+                .stream()
+                .collect(Collectors.groupingBy(
+                        fieldError -> fieldError.getField(),
+                        Collectors.mapping(
+                                fieldError -> fieldError.getDefaultMessage(),
+                                Collectors.toList()
+                        )
+                ));
+        return ErrorResponses.validationErrorResponse(violations);
+    }
+
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleHandlerMethodValidationException(HandlerMethodValidationException ex) {
+        return ErrorResponses.handlerMethodValidationErrors(ex);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleConstraintViolationException(ConstraintViolationException ex) {
+        return ErrorResponses.constraintViolationErrors(ex);
+    }
+
+    // Reactive equivalent of HttpMessageNotReadableException
+    @ExceptionHandler(ServerWebInputException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public JsonParsingErrorResponse handleServerWebInput(ServerWebInputException ex) {
+        Throwable cause = ex.getMostSpecificCause();
+        return ErrorResponses.jsonParsingErrorResponse(cause != ex ? cause.getMessage() : ex.getReason());
+    }
+
+    /**
+     * The validation scheduler's queue is full: shed the request instead of queueing it.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> handleRejectedExecution(RejectedExecutionException ex) {
+        return ErrorResponses.generalErrors(ex);
+    }
+
+    @ExceptionHandler(Exception.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public Map<String, String> handleGeneralException(Exception ex) {
+        return ErrorResponses.generalErrors(ex);
+    }
+}
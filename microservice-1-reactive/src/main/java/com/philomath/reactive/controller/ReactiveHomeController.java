@@ -0,0 +1,130 @@
+package com.philomath.reactive.controller;
+
+import com.philomath.reactive.web.OffloadedBodyDecoder;
+import com.philomath.record.Department;
+import com.philomath.record.Staff;
+import com.philomath.record.User;
+import com.philomath.record.validation.ErrorCode;
+import com.philomath.store.DepartmentDirectory;
+import com.philomath.store.StockStore;
+import com.philomath.store.Versioned;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of HomeController.
+ */
+@RestController
+@RequestMapping("/")
+public class ReactiveHomeController {
+
+    @Autowired
+    private OffloadedBodyDecoder bodyDecoder;
+
+    @Autowired
+    private DepartmentDirectory departmentDirectory;
+
+    @Autowired
+    private StockStore stockStore;
+
+    @PostMapping("/departments")
+    public Mono<Department> create(@RequestBody Mono<byte[]> body) {
+        return bodyDecoder.decode(body, Department.class).map(departmentDirectory::save);
+    }
+
+    @GetMapping("/departments/{code}")
+    public ResponseEntity<Department> getDepartment(@PathVariable("code") String code) {
+        return ResponseEntity.of(departmentDirectory.findByCode(code));
+    }
+
+    @GetMapping("/departments/isin/{isin}")
+    public ResponseEntity<Department> getDepartmentByIsin(@PathVariable("isin") String isin) {
+        return ResponseEntity.of(departmentDirectory.findByIsin(isin));
+    }
+
+    @GetMapping("/departments/stock/{stockCode}")
+    public ResponseEntity<Department> getDepartmentByStockCode(@PathVariable("stockCode") String stockCode) {
+        return ResponseEntity.of(departmentDirectory.findByStockCode(stockCode));
+    }
+
+    @GetMapping("/staff/{username}/departments")
+    public List<Department> getDepartmentsOfStaff(@PathVariable("username") String username) {
+        return departmentDirectory.findByStaffUsername(username);
+    }
+
+    @GetMapping(value = "/staff/departments", params = "email")
+    public List<Department> getDepartmentsOfStaffEmail(@RequestParam("email") String email) {
+        return departmentDirectory.findByStaffEmail(email);
+    }
+
+    @PostMapping(value = "/users", produces = "application/json")
+    public Mono<Staff> create(@RequestBody Mono<byte[]> body) {
+        return bodyDecoder.decode(body, Staff.class);
+    }
+
+    @GetMapping("/stocks/{stockCode}")
+    public ResponseEntity<Map<String, Object>> getStockInfo(
+            @Valid
+            @Pattern(regexp = "^[0-9]{1,5}$", message = "Stock code must be 1 to 5 uppercase letters", payload = ErrorCode.InvalidStockCode.class)
+            @PathVariable("stockCode") String stockCode,
+            @Valid
+            @NotEmpty(message = "ISIN must not be empty", payload = ErrorCode.InvalidStockCode.class)
+            @Pattern(regexp = "^[A-Z]{2}[A-Z0-9]{10}$", message = "ISIN must be 12 characters: 2 letters followed by 10 alphanumeric characters", payload = ErrorCode.InvalidStockCode.class)
+            @RequestParam String isin,
+            ServerWebExchange exchange) {
+        Versioned<StockStore.StockQuote> quote = stockStore.find(stockCode);
+        if (exchange.checkNotModified(quote.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(quote.etag())
+                .body(Map.of(
+                        "success", true,
+                        "stockCode", stockCode,
+                        "price", quote.value().price()
+                ));
+    }
+
+    @PutMapping("/stocks/{stockCode}")
+    public ResponseEntity<Map<String, Object>> updateStockPrice(
+            @Valid
+            @Pattern(regexp = "^[0-9]{1,5}$", message = "Stock code must be 1 to 5 uppercase letters", payload = ErrorCode.InvalidStockCode.class)
+            @PathVariable("stockCode") String stockCode,
+            // Same bounds as ProductDTO.price
+            @NotNull(message = "Price cannot be null")
+            @Positive(message = "Price must be greater than 0")
+            @Digits(integer = 6, fraction = 2, message = "Price must have at most 6 integer digits and 2 fraction digits")
+            @RequestParam BigDecimal price) {
+        Versioned<StockStore.StockQuote> quote = stockStore.save(stockCode, price);
+        return ResponseEntity.ok()
+                .eTag(quote.etag())
+                .body(Map.of(
+                        "success", true,
+                        "stockCode", stockCode,
+                        "price", quote.value().price()
+                ));
+    }
+
+    @GetMapping("/{name}")
+    public Map<String, Object> index(@PathVariable("name") String name) {
+        User user = new User(name, "abc@gmail.com");
+        return Map.of(
+                "success", true,
+                "message", "Welcome to Philomath Microservice 1",
+                "user", user
+        );
+    }
+}
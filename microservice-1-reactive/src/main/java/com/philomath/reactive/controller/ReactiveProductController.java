@@ -0,0 +1,69 @@
+package com.philomath.reactive.controller;
+
+import com.philomath.dto.ProductDTO;
+import com.philomath.reactive.web.OffloadedBodyDecoder;
+import com.philomath.store.ProductStore;
+import com.philomath.store.Versioned;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of ProductController.
+ * <p>
+ * Request bodies go through ProductDTODeserializer exactly as in the servlet build, so all type
+ * mismatches and constraint violations are still collected into one ProductDTOValidationException;
+ * the work just runs on the bounded validation scheduler instead of the request thread.
+ */
+@RestController
+@RequestMapping("/products")
+public class ReactiveProductController {
+
+    @Autowired
+    private OffloadedBodyDecoder bodyDecoder;
+
+    @Autowired
+    private ProductStore productStore;
+
+    @PostMapping("/create")
+    public Mono<ResponseEntity<ProductDTO>> createProduct(@RequestBody Mono<byte[]> body) {
+        return bodyDecoder.decode(body, ProductDTO.class).map(this::created);
+    }
+
+    @PostMapping("/create-detailed")
+    public Mono<ResponseEntity<ProductDTO>> createProductDetailed(@RequestBody Mono<byte[]> body) {
+        return bodyDecoder.decode(body, ProductDTO.class).map(this::created);
+    }
+
+    /**
+     * Same contract as the servlet build: stored product or a sample one, with a strong ETag and
+     * 304 for a matching If-None-Match before anything is serialized.
+     */
+    @GetMapping("/{productId}")
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long productId, ServerWebExchange exchange) {
+        Versioned<ProductDTO> stored = productStore.find(productId);
+        String etag = stored != null ? stored.etag() : productStore.unversionedEtag();
+        if (exchange.checkNotModified(etag)) {
+            return null;
+        }
+        if (stored != null) {
+            return ResponseEntity.ok().eTag(etag).body(stored.value());
+        }
+
+        // Return a sample product for testing
+        ProductDTO product = new ProductDTO();
+        product.setProductId(productId);
+        product.setProductName("Sample Product");
+        product.setDescription("This is a sample product for testing");
+        product.setSku("SKU12345");
+        return ResponseEntity.ok().eTag(etag).body(product);
+    }
+
+    private ResponseEntity<ProductDTO> created(ProductDTO product) {
+        Versioned<ProductDTO> stored = productStore.save(product);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(stored.etag()).body(product);
+    }
+}
@@ -0,0 +1,41 @@
+package com.philomath.reactive.controller;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.philomath.dto.User;
+import com.philomath.dto.Views;
+import com.philomath.reactive.web.OffloadedBodyDecoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of UserController: the request is read through the endpoint's JsonView,
+ * validated with the endpoint's validation group and written back through the same JsonView.
+ */
+@RestController
+@RequestMapping("/users")
+public class ReactiveUserController {
+
+    @Autowired
+    private OffloadedBodyDecoder bodyDecoder;
+
+    @PostMapping("/endpoint1")
+    @JsonView(Views.Endpoint1.class)
+    public Mono<ResponseEntity<User>> createUserEndpoint1(@RequestBody Mono<byte[]> body) {
+        return bodyDecoder.decodeWithView(body, User.class, Views.Endpoint1.class,
+                        Views.ValidationGroups.Endpoint1Validation.class)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/endpoint2")
+    @JsonView(Views.Endpoint2.class)
+    public Mono<ResponseEntity<User>> createUserEndpoint2(@RequestBody Mono<byte[]> body) {
+        return bodyDecoder.decodeWithView(body, User.class, Views.Endpoint2.class,
+                        Views.ValidationGroups.Endpoint2Validation.class)
+                .map(ResponseEntity::ok);
+    }
+}
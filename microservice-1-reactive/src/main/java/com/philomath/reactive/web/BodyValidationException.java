@@ -0,0 +1,21 @@
+package com.philomath.reactive.web;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bean Validation failures of a request body, grouped by property path.
+ * Rendered with the same ValidationErrorResponse shape as MethodArgumentNotValidException in microservice-1.
+ */
+public class BodyValidationException extends RuntimeException {
+    private final Map<String, List<String>> violations;
+
+    public BodyValidationException(Map<String, List<String>> violations) {
+        super("Request body validation failed with " + violations.values().stream().mapToInt(List::size).sum() + " violation(s)");
+        this.violations = violations;
+    }
+
+    public Map<String, List<String>> getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,92 @@
+package com.philomath.reactive.web;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.philomath.dto.ProductDTOValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Turns an aggregated request body into a validated object off the event loop.
+ * <p>
+ * The body bytes are collected without blocking by WebFlux ({@code @RequestBody Mono<byte[]>});
+ * Jackson deserialization (including custom deserializers such as ProductDTODeserializer) and
+ * Bean Validation then run on the bounded validation scheduler.
+ */
+@Component
+public class OffloadedBodyDecoder {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final Scheduler validationScheduler;
+
+    public OffloadedBodyDecoder(ObjectMapper objectMapper, Validator validator, Scheduler validationScheduler) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.validationScheduler = validationScheduler;
+    }
+
+    /**
+     * Decode and validate with the given validation groups (Default when none are given).
+     */
+    public <T> Mono<T> decode(Mono<byte[]> body, Class<T> type, Class<?>... groups) {
+        return decode(body, objectMapper.readerFor(type), groups);
+    }
+
+    /**
+     * Decode through a JsonView (like {@code @RequestBody @JsonView}) and validate with the given groups.
+     */
+    public <T> Mono<T> decodeWithView(Mono<byte[]> body, Class<T> type, Class<?> view, Class<?>... groups) {
+        return decode(body, objectMapper.readerWithView(view).forType(type), groups);
+    }
+
+    private <T> Mono<T> decode(Mono<byte[]> body, ObjectReader reader, Class<?>[] groups) {
+        return body
+                .publishOn(validationScheduler)
+                .map(bytes -> {
+                    T value = read(reader, bytes);
+                    validate(value, groups);
+                    return value;
+                });
+    }
+
+    private <T> T read(ObjectReader reader, byte[] bytes) {
+        T value;
+        try {
+            value = reader.readValue(bytes);
+        } catch (JsonMappingException e) {
+            // Keep the collect-all-errors result of ProductDTODeserializer if Jackson wrapped it
+            if (e.getCause() instanceof ProductDTOValidationException violations) {
+                throw violations;
+            }
+            throw new ServerWebInputException("Failed to read HTTP message", null, e);
+        } catch (IOException e) {
+            throw new ServerWebInputException("Failed to read HTTP message", null, e);
+        }
+        if (value == null) {
+            throw new ServerWebInputException("Request body must not be null");
+        }
+        return value;
+    }
+
+    private <T> void validate(T value, Class<?>[] groups) {
+        Set<ConstraintViolation<T>> constraintViolations = validator.validate(value, groups);
+        if (constraintViolations.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> violations = new HashMap<>();
+        for (ConstraintViolation<T> violation : constraintViolations) {
+            violations.computeIfAbsent(violation.getPropertyPath().toString(), k -> new ArrayList<>())
+                    .add(violation.getMessage());
+        }
+        throw new BodyValidationException(violations);
+    }
+}
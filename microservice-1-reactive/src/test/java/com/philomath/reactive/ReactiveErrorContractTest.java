@@ -0,0 +1,92 @@
+package com.philomath.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The reactive endpoints answer with the same error bodies as GlobalExceptionHandler in the
+ * servlet build. One validation thread with a one-task queue makes the scheduler easy to fill.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.reactive.validation.threads=1",
+        "app.reactive.validation.queue-capacity=1"
+})
+class ReactiveErrorContractTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private Scheduler validationScheduler;
+
+    @Test
+    void productViolationsAreCollectedIntoValidationErrorResponse() {
+        post("/products/create", "{\"productId\":\"abc\",\"quantity\":0}")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.error").isEqualTo("Validation Failed")
+                .jsonPath("$.message").isEqualTo("Please correct the following field errors")
+                .jsonPath("$.violations.productId").isNotEmpty()
+                .jsonPath("$.violations.quantity[0]").isEqualTo("Quantity must be at least 1")
+                .jsonPath("$.violations.sku").isNotEmpty()
+                .jsonPath("$.totalViolations").isNumber()
+                .jsonPath("$.timestamp").isNotEmpty();
+    }
+
+    @Test
+    void malformedJsonUsesJsonParsingErrorResponse() {
+        post("/products/create", "{\"productId\": ")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.error").isEqualTo("Invalid JSON Format")
+                .jsonPath("$.message").isNotEmpty()
+                .jsonPath("$.fieldType").isEqualTo("unknown");
+    }
+
+    @Test
+    void fullValidationSchedulerIsShedWith503() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Occupy the only validation thread, then its single queue slot
+            validationScheduler.schedule(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            validationScheduler.schedule(() -> {
+            });
+
+            post("/products/create", "{\"productId\":1}")
+                    .expectStatus().isEqualTo(503)
+                    .expectBody()
+                    .jsonPath("$.error").isNotEmpty()
+                    .jsonPath("$.message").exists();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private WebTestClient.ResponseSpec post(String path, String json) {
+        return webTestClient.post()
+                .uri(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(json)
+                .exchange();
+    }
+}
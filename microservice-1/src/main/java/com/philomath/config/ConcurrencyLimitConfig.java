@@ -0,0 +1,80 @@
+package com.philomath.config;
+
+import com.philomath.web.AdaptiveConcurrencyLimiter;
+import com.philomath.web.ConcurrencyLimitFilter;
+import com.philomath.web.ConcurrencyLimitFilter.EndpointClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitConfig.ConcurrencyLimitProps.class)
+@ConditionalOnProperty(prefix = "app.concurrency-limit", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(ConcurrencyLimitProps props,
+                                                                          MeterRegistry meterRegistry) {
+        Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+        Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+        limiters.put(EndpointClass.CHEAP_READ, limiter(EndpointClass.CHEAP_READ, props.cheapRead(), props));
+        limiters.put(EndpointClass.VALIDATION_WRITE, limiter(EndpointClass.VALIDATION_WRITE, props.validationWrite(), props));
+        limiters.put(EndpointClass.BULK, limiter(EndpointClass.BULK, props.bulk(), props));
+
+        limiters.forEach((endpointClass, limiter) -> {
+            String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("class", tag).register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("class", tag).register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("concurrency.rejected")
+                    .tag("class", tag).register(meterRegistry));
+        });
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limiters, rejections, props.bulkPaths(), props.excludedPaths(),
+                        Math.max(1, props.retryAfter().toSeconds())));
+        // Ahead of IdempotencyFilter, so requests are limited before any body is buffered or read
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(EndpointClass endpointClass, Limits limits, ConcurrencyLimitProps props) {
+        return new AdaptiveConcurrencyLimiter(endpointClass.name(), limits.initialLimit(), limits.minLimit(),
+                limits.maxLimit(), props.probeMultiplier());
+    }
+
+    @ConfigurationProperties(prefix = "app.concurrency-limit")
+    public record ConcurrencyLimitProps(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("1s") Duration retryAfter,
+            @DefaultValue("30") int probeMultiplier,
+            @DefaultValue({"/**/bulk", "/**/bulk/**"}) List<String> bulkPaths,
+            @DefaultValue("/actuator/**") List<String> excludedPaths,
+            @DefaultValue Limits cheapRead,
+            @DefaultValue Limits validationWrite,
+            @DefaultValue Limits bulk
+    ) {
+    }
+
+    public record Limits(
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("5") int minLimit,
+            @DefaultValue("200") int maxLimit
+    ) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.philomath.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.philomath.web.IdempotencyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyConfig.IdempotencyProps.class)
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    Cache<String, IdempotencyFilter.Entry> idempotencyCache(IdempotencyProps props, MeterRegistry meterRegistry) {
+        Cache<String, IdempotencyFilter.Entry> cache = Caffeine.newBuilder()
+                .maximumSize(props.maximumSize())
+                .expireAfterWrite(props.ttl())
+                .recordStats()
+                .build();
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+        return cache;
+    }
+
+    @Bean
+    FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            Cache<String, IdempotencyFilter.Entry> idempotencyCache,
+            IdempotencyProps props,
+            ObjectMapper objectMapper
+    ) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(new IdempotencyFilter(
+                idempotencyCache, props.paths(), Math.toIntExact(props.maxBodySize().toBytes()), objectMapper));
+        // Inside the concurrency limit, which sheds load before this filter buffers a body, and
+        // ahead of everything else that touches the request body
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 25);
+        return registration;
+    }
+
+    @ConfigurationProperties(prefix = "app.idempotency")
+    public record IdempotencyProps(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("10m") Duration ttl,
+            @DefaultValue("1MB") DataSize maxBodySize,
+            @DefaultValue({"/products/create", "/users/endpoint1", "/users/endpoint2", "/departments"})
+            Set<String> paths
+    ) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.philomath.config;
+
+import com.philomath.metrics.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Wires per-stage request timing: body read, deserialization, validation, controller,
+ * exception mapping and serialization, published as {@value RequestStageMetricsFilter#METRIC}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.request-stage-metrics", name = "enabled", matchIfMissing = true)
+public class RequestStageMetricsConfig implements WebMvcConfigurer {
+
+    private final jakarta.validation.Validator validator;
+
+    public RequestStageMetricsConfig(jakarta.validation.Validator validator) {
+        this.validator = validator;
+    }
+
+    @Bean
+    FilterRegistrationBean<RequestStageMetricsFilter> requestStageMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestStageMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestStageMetricsFilter(meterRegistry));
+        // Inside the idempotency and concurrency-limit filters: replays and rejections have no stages
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestStageInterceptor());
+    }
+
+    @Override
+    public Validator getValidator() {
+        return new TimedValidator(validator);
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                ? new TimedJackson2HttpMessageConverter(((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                : converter);
+    }
+
+    @Override
+    public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+        resolvers.replaceAll(TimedHandlerExceptionResolver::new);
+    }
+}
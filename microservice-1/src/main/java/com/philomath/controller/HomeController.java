@@ -4,15 +4,24 @@ import com.philomath.record.Department;
 import com.philomath.record.Staff;
 import com.philomath.record.User;
 import com.philomath.record.validation.ErrorCode;
+import com.philomath.store.DepartmentDirectory;
+import com.philomath.store.StockStore;
+import com.philomath.store.Versioned;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
 import jakarta.validation.Validator;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -23,12 +32,44 @@ public class HomeController {
     @Autowired
     private Validator validator;
 
+    @Autowired
+    private DepartmentDirectory departmentDirectory;
+
+    @Autowired
+    private StockStore stockStore;
+
     @PostMapping("/departments")
     public Department create(
             @Valid
             @NotNull(message = "Department must not be null", payload = ErrorCode.InvalidDepartment.class)
             @RequestBody Department department) {
-        return department;
+        return departmentDirectory.save(department);
+    }
+
+    @GetMapping("/departments/{code}")
+    public ResponseEntity<Department> getDepartment(@PathVariable("code") String code) {
+        return ResponseEntity.of(departmentDirectory.findByCode(code));
+    }
+
+    @GetMapping("/departments/isin/{isin}")
+    public ResponseEntity<Department> getDepartmentByIsin(@PathVariable("isin") String isin) {
+        return ResponseEntity.of(departmentDirectory.findByIsin(isin));
+    }
+
+    @GetMapping("/departments/stock/{stockCode}")
+    public ResponseEntity<Department> getDepartmentByStockCode(@PathVariable("stockCode") String stockCode) {
+        return ResponseEntity.of(departmentDirectory.findByStockCode(stockCode));
+    }
+
+    // Reverse membership lookups are served from the directory's staff index, not by scanning departments
+    @GetMapping("/staff/{username}/departments")
+    public List<Department> getDepartmentsOfStaff(@PathVariable("username") String username) {
+        return departmentDirectory.findByStaffUsername(username);
+    }
+
+    @GetMapping(value = "/staff/departments", params = "email")
+    public List<Department> getDepartmentsOfStaffEmail(@RequestParam("email") String email) {
+        return departmentDirectory.findByStaffEmail(email);
     }
 
     @PostMapping(value = "/users", produces = "application/json")
@@ -51,19 +92,47 @@ public class HomeController {
     }
 
     @GetMapping("/stocks/{stockCode}")
-    public Map<String, Object> getStockInfo(
+    public ResponseEntity<Map<String, Object>> getStockInfo(
             @Valid
             @Pattern(regexp = "^[0-9]{1,5}$", message = "Stock code must be 1 to 5 uppercase letters", payload = ErrorCode.InvalidStockCode.class)
             @PathVariable("stockCode") String stockCode,
             @Valid
             @NotEmpty(message = "ISIN must not be empty", payload = ErrorCode.InvalidStockCode.class)
             @Pattern(regexp = "^[A-Z]{2}[A-Z0-9]{10}$", message = "ISIN must be 12 characters: 2 letters followed by 10 alphanumeric characters", payload = ErrorCode.InvalidStockCode.class)
-            @RequestParam String isin) {
-        return Map.of(
-                "success", true,
-                "stockCode", stockCode,
-                "price", 123.45
-        );
+            @RequestParam String isin,
+            WebRequest request) {
+        Versioned<StockStore.StockQuote> quote = stockStore.find(stockCode);
+        // Unchanged quotes are answered with 304 before the body is built or serialized
+        if (request.checkNotModified(quote.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(quote.etag())
+                .body(Map.of(
+                        "success", true,
+                        "stockCode", stockCode,
+                        "price", quote.value().price()
+                ));
+    }
+
+    @PutMapping("/stocks/{stockCode}")
+    public ResponseEntity<Map<String, Object>> updateStockPrice(
+            @Valid
+            @Pattern(regexp = "^[0-9]{1,5}$", message = "Stock code must be 1 to 5 uppercase letters", payload = ErrorCode.InvalidStockCode.class)
+            @PathVariable("stockCode") String stockCode,
+            // Same bounds as ProductDTO.price
+            @NotNull(message = "Price cannot be null")
+            @Positive(message = "Price must be greater than 0")
+            @Digits(integer = 6, fraction = 2, message = "Price must have at most 6 integer digits and 2 fraction digits")
+            @RequestParam BigDecimal price) {
+        Versioned<StockStore.StockQuote> quote = stockStore.save(stockCode, price);
+        return ResponseEntity.ok()
+                .eTag(quote.etag())
+                .body(Map.of(
+                        "success", true,
+                        "stockCode", stockCode,
+                        "price", quote.value().price()
+                ));
     }
 
     @GetMapping("/{name}")
@@ -1,11 +1,15 @@
 package com.philomath.controller;
 
 import com.philomath.dto.ProductDTO;
+import com.philomath.store.ProductStore;
+import com.philomath.store.Versioned;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST Controller for Product management with comprehensive constraint violations collection.
@@ -18,6 +22,9 @@ import org.springframework.web.bind.annotation.*;
 @Validated
 public class ProductController {
 
+    @Autowired
+    private ProductStore productStore;
+
     /**
      * POST endpoint to create a product.
      * <p>
@@ -30,8 +37,9 @@ public class ProductController {
      */
     @PostMapping("/create")
     public ResponseEntity<ProductDTO> createProduct(@Valid @RequestBody ProductDTO product) {
-        // If validation passes, product is returned as-is
-        return ResponseEntity.status(HttpStatus.CREATED).body(product);
+        // If validation passes, product is stored and returned as-is
+        Versioned<ProductDTO> stored = productStore.save(product);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(stored.etag()).body(product);
     }
 
     /**
@@ -45,23 +53,38 @@ public class ProductController {
     @PostMapping("/create-detailed")
     public ResponseEntity<ProductDTO> createProductDetailed(@Valid @RequestBody ProductDTO product) {
         // If validation passes, product is created
-        return ResponseEntity.status(HttpStatus.CREATED).body(product);
+        Versioned<ProductDTO> stored = productStore.save(product);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(stored.etag()).body(product);
     }
 
     /**
-     * GET endpoint to retrieve a product (for testing purposes).
+     * GET endpoint to retrieve a product.
+     * <p>
+     * Returns the stored product, or a sample product (for testing purposes) if none was created
+     * with this ID. The response carries a strong ETag taken from the store's version counter;
+     * a matching If-None-Match is answered with 304 before the product is serialized.
      *
      * @param productId the product ID
-     * @return a sample ProductDTO object
+     * @param request   used to evaluate If-None-Match
+     * @return the stored or sample ProductDTO object, or 304 Not Modified
      */
     @GetMapping("/{productId}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long productId) {
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long productId, WebRequest request) {
+        Versioned<ProductDTO> stored = productStore.find(productId);
+        String etag = stored != null ? stored.etag() : productStore.unversionedEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (stored != null) {
+            return ResponseEntity.ok().eTag(etag).body(stored.value());
+        }
+
         // Return a sample product for testing
         ProductDTO product = new ProductDTO();
         product.setProductId(productId);
         product.setProductName("Sample Product");
         product.setDescription("This is a sample product for testing");
         product.setSku("SKU12345");
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().eTag(etag).body(product);
     }
 }
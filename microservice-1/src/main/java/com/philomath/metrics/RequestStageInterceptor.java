@@ -0,0 +1,32 @@
+package com.philomath.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Marks the handler window used to derive {@link RequestStage#HANDLE}.
+ * For {@code @ResponseBody} handlers postHandle runs after the body is written, which is fine:
+ * serialization is measured separately and subtracted.
+ */
+public class RequestStageInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestStageTimings timings = RequestStageTimings.current();
+        if (timings != null) {
+            timings.openHandle();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        RequestStageTimings timings = RequestStageTimings.current();
+        if (timings != null) {
+            timings.closeHandle();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.philomath.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link RequestStageTimings} for each request and publishes the per-stage durations as
+ * {@value #METRIC} timers tagged with method, URI pattern and stage.
+ * <p>
+ * Timers publish a percentile histogram (Prometheus buckets) and client-side p50/p95/p99, which
+ * Micrometer computes from a rolling HdrHistogram. Timers are cached per endpoint, so recording
+ * a request costs one map lookup plus one histogram update per stage.
+ */
+public class RequestStageMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "http.server.request.stage";
+
+    private static final RequestStage[] STAGES = RequestStage.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public RequestStageMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStageTimings timings = RequestStageTimings.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStageTimings.end();
+            timings.closeHandle();
+            publish(request, timings);
+        }
+    }
+
+    private void publish(HttpServletRequest request, RequestStageTimings timings) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = request.getMethod();
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Timer[] stageTimers = timers.computeIfAbsent(method + ' ' + uri, k -> register(method, uri));
+        for (RequestStage stage : STAGES) {
+            long nanos = timings.get(stage);
+            if (nanos > 0) {
+                stageTimers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer[] register(String method, String uri) {
+        Timer[] stageTimers = new Timer[STAGES.length];
+        for (RequestStage stage : STAGES) {
+            stageTimers[stage.ordinal()] = Timer.builder(METRIC)
+                    .description("Time spent in each stage of request processing")
+                    .tag("method", method)
+                    .tag("uri", uri)
+                    .tag("stage", stage.tagValue())
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .distributionStatisticExpiry(Duration.ofMinutes(2))
+                    .register(meterRegistry);
+        }
+        return stageTimers;
+    }
+}
@@ -0,0 +1,46 @@
+package com.philomath.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Wraps an exception resolver (e.g. the one driving GlobalExceptionHandler) to time
+ * {@link RequestStage#EXCEPTION_MAPPING}. Writing the error body goes through the timed message
+ * converter and is counted as serialization, not as mapping.
+ */
+public class TimedHandlerExceptionResolver implements HandlerExceptionResolver, Ordered {
+
+    private final HandlerExceptionResolver delegate;
+
+    public TimedHandlerExceptionResolver(HandlerExceptionResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ModelAndView resolveException(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Exception ex) {
+        RequestStageTimings timings = RequestStageTimings.current();
+        if (timings == null) {
+            return delegate.resolveException(request, response, handler, ex);
+        }
+        // The handler failed: postHandle won't run, so the handler window ends here
+        timings.closeHandle();
+        long serializeBefore = timings.get(RequestStage.SERIALIZE);
+        long start = System.nanoTime();
+        try {
+            return delegate.resolveException(request, response, handler, ex);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timings.add(RequestStage.EXCEPTION_MAPPING,
+                    Math.max(0, elapsed - (timings.get(RequestStage.SERIALIZE) - serializeBefore)));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return delegate instanceof Ordered ordered ? ordered.getOrder() : Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,107 @@
+package com.philomath.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that splits reading into {@link RequestStage#BODY_READ} (time blocked on the
+ * request stream) and {@link RequestStage#DESERIALIZE} (the rest of the read, minus any
+ * validation a custom deserializer records), and times writing as {@link RequestStage#SERIALIZE}.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        RequestStageTimings timings = RequestStageTimings.current();
+        if (timings == null) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        long bodyReadBefore = timings.get(RequestStage.BODY_READ);
+        long validateBefore = timings.get(RequestStage.VALIDATE);
+        long start = System.nanoTime();
+        try {
+            return super.read(type, contextClass, new TimedInputMessage(inputMessage, timings));
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long nested = (timings.get(RequestStage.BODY_READ) - bodyReadBefore)
+                    + (timings.get(RequestStage.VALIDATE) - validateBefore);
+            timings.add(RequestStage.DESERIALIZE, Math.max(0, elapsed - nested));
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            RequestStageTimings.record(RequestStage.SERIALIZE, System.nanoTime() - start);
+        }
+    }
+
+    private static final class TimedInputMessage implements HttpInputMessage {
+        private final HttpInputMessage delegate;
+        private final RequestStageTimings timings;
+
+        TimedInputMessage(HttpInputMessage delegate, RequestStageTimings timings) {
+            this.delegate = delegate;
+            this.timings = timings;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new TimedInputStream(delegate.getBody(), timings);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    private static final class TimedInputStream extends FilterInputStream {
+        private final RequestStageTimings timings;
+
+        TimedInputStream(InputStream in, RequestStageTimings timings) {
+            super(in);
+            this.timings = timings;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                timings.add(RequestStage.BODY_READ, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.read(b, off, len);
+            } finally {
+                timings.add(RequestStage.BODY_READ, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.philomath.metrics;
+
+import jakarta.validation.ConstraintViolation;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.util.Set;
+
+/**
+ * Bean Validation adapter that records {@link RequestStage#VALIDATE} for {@code @Valid} and
+ * {@code @Validated} request bodies.
+ */
+public class TimedValidator extends SpringValidatorAdapter {
+
+    public TimedValidator(jakarta.validation.Validator targetValidator) {
+        super(targetValidator);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        long start = System.nanoTime();
+        try {
+            super.validate(target, errors);
+        } finally {
+            RequestStageTimings.record(RequestStage.VALIDATE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        long start = System.nanoTime();
+        try {
+            super.validate(target, errors, validationHints);
+        } finally {
+            RequestStageTimings.record(RequestStage.VALIDATE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+        long start = System.nanoTime();
+        try {
+            return super.validate(object, groups);
+        } finally {
+            RequestStageTimings.record(RequestStage.VALIDATE, System.nanoTime() - start);
+        }
+    }
+}
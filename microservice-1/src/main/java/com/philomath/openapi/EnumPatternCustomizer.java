@@ -1,5 +1,6 @@
 package com.philomath.openapi;
 
+import com.philomath.record.validation.ValidEnum;
 import com.philomath.utils.EnumPatternUtil;
 import io.swagger.v3.core.converter.AnnotatedType;
 import io.swagger.v3.oas.models.media.Schema;
@@ -7,12 +8,31 @@ import org.springdoc.core.customizers.PropertyCustomizer;
 import org.springframework.stereotype.Component;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class EnumPatternCustomizer implements PropertyCustomizer {
+
+    // Computed once per enum class instead of once per property and document build
+    private static final ClassValue<List<String>> ENUM_NAMES = new ClassValue<>() {
+        @Override
+        protected List<String> computeValue(Class<?> type) {
+            return Arrays.stream(type.getEnumConstants())
+                    .map(constant -> ((Enum<?>) constant).name())
+                    .toList();
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    private static final ClassValue<String> ENUM_PATTERNS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return EnumPatternUtil.patternFor((Class<? extends Enum<?>>) type);
+        }
+    };
+
     @Override
     public Schema customize(Schema property, AnnotatedType type) {
         // Try to get the raw class in different ways
@@ -24,24 +44,14 @@ public class EnumPatternCustomizer implements PropertyCustomizer {
             clazz = (Class<?>) rawType;
         }
 
-        // If still null, try context annotations to detect @ValidEnum or other hints
+        // If still null, try context annotations to detect @ValidEnum
         if (clazz == null && type.getCtxAnnotations() != null) {
             for (Annotation ann : type.getCtxAnnotations()) {
-                if (ann.annotationType().getSimpleName().equals("ValidEnum")) {
-                    try {
-                        // reflectively get enumClass() value from annotation instance
-                        Class<? extends Enum<?>> enumClass = (Class<? extends Enum<?>>) ann.annotationType()
-                                .getMethod("enumClass").invoke(ann);
-                        if (enumClass != null) {
-//                            String pattern = EnumPatternUtil.patternFor(enumClass);
-//                            property.setPattern(pattern);
-                            List<String> enumNames = Arrays.stream(enumClass.getEnumConstants())
-                                    .map(Enum::name)
-                                    .collect(Collectors.toList());
-                            property.setEnum(enumNames);
-                        }
-                    } catch (Exception e) {
-                        // log or ignore
+                if (ann instanceof ValidEnum validEnum) {
+                    Class<? extends Enum<?>> enumClass = validEnum.enumClass();
+                    if (enumClass != null) {
+                        // Copy: the schema owns its enum list and may add to it
+                        property.setEnum(new ArrayList<>(ENUM_NAMES.get(enumClass)));
                     }
                     break;
                 }
@@ -50,8 +60,7 @@ public class EnumPatternCustomizer implements PropertyCustomizer {
 
         // If clazz still set, handle enum pattern here if applicable
         else if (clazz != null && clazz.isEnum()) {
-            String pattern = EnumPatternUtil.patternFor((Class<? extends Enum<?>>) clazz);
-            property.setPattern(pattern);
+            property.setPattern(ENUM_PATTERNS.get(clazz));
         }
 
         return property;
@@ -0,0 +1,132 @@
+package com.philomath.openapi;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Serves the OpenAPI document generated at build time from memory, in place of springdoc.
+ * <p>
+ * The gzip (and, when the build had the brotli CLI, brotli) encodings were compressed once at build
+ * time. They are sent as-is to clients that accept them, and the identity encoding is inflated
+ * once at startup. Each encoding has its own strong ETag derived from the document's SHA-256. A
+ * gateway that polls with If-None-Match gets a 304 without any body.
+ */
+@RestController
+@ConditionalOnProperty(name = PrebuiltOpenApiEnvironmentPostProcessor.ACTIVE_PROPERTY, havingValue = "true")
+public class PrebuiltOpenApiController {
+
+    static final String DOCUMENT = "openapi/openapi.json";
+
+    private final Representation identity;
+    private final Representation gzip;
+    private final Representation brotli;
+
+    public PrebuiltOpenApiController() {
+        this(read(DOCUMENT + ".gz"), new ClassPathResource(DOCUMENT + ".br").exists() ? read(DOCUMENT + ".br") : null);
+    }
+
+    PrebuiltOpenApiController(byte[] gzipped, byte[] brotlied) {
+        byte[] json = gunzip(gzipped);
+        String hash = sha256(json);
+        identity = new Representation(json, null, "\"" + hash + "\"");
+        gzip = new Representation(gzipped, "gzip", "\"" + hash + "-gzip\"");
+        brotli = brotlied != null ? new Representation(brotlied, "br", "\"" + hash + "-br\"") : null;
+    }
+
+    /**
+     * If-None-Match is evaluated by {@link WebRequest#checkNotModified(String)}, as in
+     * ProductController: a list of entity tags, {@code *} and weak tags are all handled.
+     * Vary and Cache-Control are set first so that a 304 carries them too.
+     */
+    @GetMapping(value = "/v3/api-docs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> apiDocs(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request, HttpServletResponse response) {
+        Representation representation = select(acceptEncoding);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic().getHeaderValue());
+        if (request.checkNotModified(representation.etag())) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(representation.etag());
+        if (representation.encoding() != null) {
+            ok.header(HttpHeaders.CONTENT_ENCODING, representation.encoding());
+        }
+        return ok.contentLength(representation.body().length).body(representation.body());
+    }
+
+    private Representation select(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return identity;
+        }
+        if (brotli != null && accepts(acceptEncoding, "br")) {
+            return brotli;
+        }
+        return accepts(acceptEncoding, "gzip") ? gzip : identity;
+    }
+
+    private static boolean accepts(String acceptEncoding, String coding) {
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(coding) && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                if (params[i].replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] read(String path) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read prebuilt OpenAPI document " + path, e);
+        }
+    }
+
+    private static byte[] gunzip(byte[] gzipped) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Prebuilt OpenAPI document is not valid gzip", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Representation(byte[] body, String encoding, String etag) {
+    }
+}
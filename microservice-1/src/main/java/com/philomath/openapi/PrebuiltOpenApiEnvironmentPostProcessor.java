@@ -0,0 +1,51 @@
+package com.philomath.openapi;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Switches from runtime springdoc scanning to the OpenAPI document generated at build time.
+ * <p>
+ * The boot jar carries {@value PrebuiltOpenApiController#DOCUMENT}.gz (see build.gradle). When it is
+ * on the classpath, springdoc's own {@code /v3/api-docs} endpoint is turned off and
+ * {@link PrebuiltOpenApiController} serves the prebuilt bytes instead. Runtime scanning, and with
+ * it Swagger UI, stays on when:
+ * <ul>
+ *     <li>the {@code dev} profile is active</li>
+ *     <li>{@code app.openapi.prebuilt.enabled=false} is set</li>
+ *     <li>the document is absent, e.g. under {@code bootRun}, in tests, or in the reactive
+ *     variant, which puts this module's plain jar on its classpath</li>
+ * </ul>
+ * In the {@code -PfastStartup} build the choice is frozen into the AOT bean definitions, so the
+ * build also puts the document on the classpath of {@code processAot}.
+ */
+public class PrebuiltOpenApiEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String ACTIVE_PROPERTY = "app.openapi.prebuilt.active";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!environment.getProperty("app.openapi.prebuilt.enabled", Boolean.class, true)
+                || Arrays.asList(environment.getActiveProfiles()).contains("dev")
+                || !new ClassPathResource(PrebuiltOpenApiController.DOCUMENT + ".gz").exists()) {
+            return;
+        }
+        // Lowest precedence: an explicit springdoc.api-docs.enabled still wins
+        environment.getPropertySources().addLast(new MapPropertySource("prebuiltOpenApi", Map.of(
+                "springdoc.api-docs.enabled", "false",
+                ACTIVE_PROPERTY, "true")));
+    }
+
+    @Override
+    public int getOrder() {
+        // After config data, so profiles from application.yml and the command line are known
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,131 @@
+package com.philomath.web;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter whose limit follows a TCP Vegas style estimate of the queue building up
+ * behind the protected code.
+ * <p>
+ * The lowest latency seen recently ({@code rttNoLoad}) stands in for the cost of a request
+ * without queueing. For each completed request the limiter estimates the queue as
+ * {@code limit * (1 - rttNoLoad / rtt)}. While that queue is small the limit grows, and once it
+ * passes {@code beta} the limit shrinks. Requests above the limit are rejected immediately
+ * instead of waiting. Thresholds scale with {@code log10(limit)}, so small limits move by one
+ * and large limits move proportionally.
+ * <p>
+ * {@code rttNoLoad} is re-probed periodically, so a permanent latency shift (a slower dependency,
+ * a bigger payload mix) is not mistaken for queueing forever.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeMultiplier;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private long rttNoLoad;
+    private long samplesUntilProbe;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, int probeMultiplier) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeMultiplier = probeMultiplier;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.samplesUntilProbe = nextProbeCountdown(initialLimit);
+    }
+
+    /**
+     * Claim a slot for a request. Every successful call must be paired with one {@link #release}.
+     *
+     * @return whether a slot was free
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give a slot back and feed the request's latency into the limit.
+     *
+     * @param startNanos {@link System#nanoTime()} when the request was admitted
+     * @param dropped    whether the request failed in a way that signals overload (an exception
+     *                   or a 5xx response)
+     */
+    public void release(long startNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        onSample(System.nanoTime() - startNanos, inFlightAtRelease, dropped);
+    }
+
+    private synchronized void onSample(long rtt, int inFlightAtRelease, boolean dropped) {
+        if (--samplesUntilProbe <= 0) {
+            // Forget the baseline so the next sample re-establishes it
+            rttNoLoad = 0;
+            samplesUntilProbe = nextProbeCountdown(limit);
+        }
+        if (rtt <= 0) {
+            return;
+        }
+        double current = estimatedLimit;
+        double log = Math.max(1, Math.log10(current));
+        double next;
+        if (dropped) {
+            // Checked before the baseline: a downstream failing fast under overload answers
+            // quicker than any healthy request, and must lower the limit, not become rttNoLoad
+            next = current - log;
+        } else if (rttNoLoad == 0 || rtt < rttNoLoad) {
+            rttNoLoad = rtt;
+            return;
+        } else if (inFlightAtRelease * 2 < current) {
+            // Application-limited: too little traffic to tell anything about the limit
+            return;
+        } else {
+            double queue = Math.ceil(current * (1 - (double) rttNoLoad / rtt));
+            double alpha = 3 * log;
+            double beta = 6 * log;
+            if (queue <= log) {
+                next = current + beta;
+            } else if (queue < alpha) {
+                next = current + log;
+            } else if (queue > beta) {
+                next = current - log;
+            } else {
+                return;
+            }
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    private long nextProbeCountdown(int forLimit) {
+        // Jitter keeps limiters of different endpoint classes from probing in lockstep
+        return (long) (probeMultiplier * forLimit * ThreadLocalRandom.current().nextDouble(0.5, 1.0)) + 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
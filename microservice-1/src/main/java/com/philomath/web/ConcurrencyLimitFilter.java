@@ -0,0 +1,110 @@
+package com.philomath.web;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sheds load per endpoint class before any request body is read.
+ * <p>
+ * Each request is classified as a cheap read, a validation-heavy write or a bulk call, and each
+ * class has its own {@link AdaptiveConcurrencyLimiter}. A slow class therefore can't take the
+ * capacity of the others. Requests above the current limit get a 503 with {@code Retry-After}
+ * right away, so ProductDTODeserializer and Bean Validation never see them.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {
+        CHEAP_READ, VALIDATION_WRITE, BULK
+    }
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters;
+    private final Map<EndpointClass, Counter> rejections;
+    private final List<String> bulkPaths;
+    private final List<String> excludedPaths;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters,
+                                  Map<EndpointClass, Counter> rejections,
+                                  List<String> bulkPaths,
+                                  List<String> excludedPaths,
+                                  long retryAfterSeconds) {
+        this.limiters = limiters;
+        this.rejections = rejections;
+        this.bulkPaths = bulkPaths;
+        this.excludedPaths = excludedPaths;
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = pathWithinApplication(request);
+        return excludedPaths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        AdaptiveConcurrencyLimiter limiter = limiters.get(endpointClass);
+
+        if (!limiter.tryAcquire()) {
+            rejections.get(endpointClass).increment();
+            reject(response, endpointClass);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            // A 5xx is as much an overload signal as an exception, e.g. a saturated downstream
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(start, dropped);
+        }
+    }
+
+    EndpointClass classify(HttpServletRequest request) {
+        String path = pathWithinApplication(request);
+        for (String pattern : bulkPaths) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return EndpointClass.BULK;
+            }
+        }
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH) {
+            return EndpointClass.VALIDATION_WRITE;
+        }
+        return EndpointClass.CHEAP_READ;
+    }
+
+    private void reject(HttpServletResponse response, EndpointClass endpointClass) throws IOException {
+        byte[] body = ("{\"error\":\"ConcurrencyLimitExceeded\",\"message\":\"Too many concurrent "
+                + endpointClass.name() + " requests, retry later\"}").getBytes(StandardCharsets.UTF_8);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
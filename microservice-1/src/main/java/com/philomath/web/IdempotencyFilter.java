@@ -0,0 +1,273 @@
+package com.philomath.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays stored responses for POST requests that carry an {@value #HEADER} header.
+ * <p>
+ * The first request with a given key reserves it, runs the normal deserialize, validate and
+ * handle path, and its response is captured together with a SHA-256 fingerprint of the request
+ * body. A retry with the same key (on the same path) and the same body is answered from the
+ * cache; its body is hashed but never deserialized or validated again. Otherwise:
+ * <ul>
+ *     <li>a different body under a key already used is rejected with 422</li>
+ *     <li>a request whose key is still reserved by a request in progress is rejected with 409,
+ *     so two concurrent requests with one key never both run</li>
+ * </ul>
+ * 5xx responses are not stored, and a failed request releases its key, so a retry after a
+ * server-side failure is processed again. A stored response keeps its status, body and headers
+ * ({@code ETag}, {@code Location}, ...), except hop-by-hop ones.
+ * <p>
+ * The body is buffered to be fingerprinted, so it is capped at {@code maxBodySize}; a keyed
+ * request with a larger body is rejected with 413 before it is read past the cap.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Keys above this length are not cached, so clients can't use the cache to hold large strings
+    private static final int MAX_KEY_LENGTH = 255;
+
+    // Describe the connection, not the response (RFC 9110 section 7.6.1), or are set from the stored body
+    private static final Set<String> NOT_STORED_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length", "content-type");
+
+    private final Cache<String, Entry> cache;
+    private final Set<String> paths;
+    private final int maxBodySize;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(Cache<String, Entry> cache, Set<String> paths, int maxBodySize, ObjectMapper objectMapper) {
+        this.cache = cache;
+        this.paths = paths;
+        this.maxBodySize = maxBodySize;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String key = request.getHeader(HEADER);
+        return key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !paths.contains(pathWithinApplication(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String cacheKey = pathWithinApplication(request) + ' ' + request.getHeader(HEADER);
+        byte[] body = readBody(request);
+        if (body == null) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "IdempotentRequestTooLarge",
+                    "Requests with an Idempotency-Key are limited to " + maxBodySize + " bytes");
+            return;
+        }
+        byte[] fingerprint = sha256(body);
+
+        Entry reservation = new Entry(fingerprint, null);
+        // getIfPresent first, so replays still show up in the cache's hit/miss statistics
+        Entry existing = cache.getIfPresent(cacheKey);
+        if (existing == null) {
+            existing = cache.asMap().putIfAbsent(cacheKey, reservation);
+        }
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.fingerprint(), fingerprint)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "IdempotencyKeyReused",
+                        "Idempotency-Key was already used with a different request body");
+            } else if (existing.response() == null) {
+                reject(response, HttpStatus.CONFLICT, "IdempotencyKeyInProgress",
+                        "A request with this Idempotency-Key is still being processed");
+            } else {
+                response.setHeader(REPLAYED_HEADER, "true");
+                existing.response().writeTo(response);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), wrapper);
+            if (wrapper.getStatus() < 500) {
+                stored = cache.asMap().replace(cacheKey, reservation, new Entry(fingerprint, new StoredResponse(
+                        wrapper.getStatus(), wrapper.getContentType(), storedHeaders(wrapper),
+                        wrapper.getContentAsByteArray())));
+            }
+        } finally {
+            if (!stored) {
+                cache.asMap().remove(cacheKey, reservation);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * The whole body, or {@code null} when it is larger than {@code maxBodySize}.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodySize) {
+            return null;
+        }
+        // Chunked bodies have no declared length: read at most one byte past the cap
+        byte[] body = request.getInputStream().readNBytes(maxBodySize + 1);
+        return body.length > maxBodySize ? null : body;
+    }
+
+    private static HttpHeaders storedHeaders(HttpServletResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : response.getHeaderNames()) {
+            if (!NOT_STORED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.addAll(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String error, String message)
+            throws IOException {
+        // Same shape as ErrorResponses.generalErrors
+        Map<String, String> errors = new LinkedHashMap<>();
+        errors.put("error", error);
+        errors.put("message", message);
+        byte[] body = objectMapper.writeValueAsBytes(errors);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Fingerprint of the request body a key was first used with, and its response; the response is
+     * {@code null} while that request is still in progress.
+     */
+    public record Entry(byte[] fingerprint, StoredResponse response) {
+    }
+
+    /**
+     * Status, content type, end-to-end headers and body of a completed response.
+     */
+    public record StoredResponse(int status, String contentType, HttpHeaders headers, byte[] body) {
+
+        void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * The request with its body already read, so the rest of the chain can read it again.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is in memory: it is available at once, and never blocks
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.philomath.perf;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+
+import java.util.stream.Stream;
+
+/**
+ * Latency and allocation budgets for the microservice-1 endpoints, replayed with the recorded
+ * payloads under {@code payloads/}. Budgets live in {@code perf-budgets.properties}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(PerfTestConfiguration.class)
+class MicroService1PerfTest {
+
+    private static PerfRunner runner;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AllocationRecordingFilter allocations;
+
+    static Stream<PerfScenario> scenarios() {
+        return Stream.of(
+                PerfScenario.post("product-create-valid", "/products/create", "payloads/product-valid.json", 201),
+                PerfScenario.post("product-create-invalid", "/products/create", "payloads/product-invalid.json", 400),
+                PerfScenario.get("product-get", "/products/42", 200),
+                PerfScenario.post("user-endpoint1", "/users/endpoint1", "payloads/user-endpoint1.json", 200),
+                PerfScenario.post("user-endpoint2", "/users/endpoint2", "payloads/user-endpoint2.json", 200),
+                PerfScenario.get("stock-get", "/stocks/12345?isin=US0378331005", 200)
+        );
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (runner == null) {
+            runner = new PerfRunner("http://localhost:" + port, allocations, PerfBudgets.load());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("scenarios")
+    void staysWithinBudget(PerfScenario scenario) {
+        runner.runAndCheck(scenario);
+    }
+
+    @AfterAll
+    static void writeReport() {
+        if (runner != null) {
+            runner.writeReport("microservice-1");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.philomath.controller;
+
+import com.philomath.store.StockStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class HomeControllerTest {
+
+    private static final String STOCK = "/stocks/12345?isin=US0378331005";
+
+    private final MockMvc mockMvc;
+
+    HomeControllerTest() {
+        HomeController controller = new HomeController();
+        ReflectionTestUtils.setField(controller, "stockStore", new StockStore());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void unchangedQuoteIsAnsweredWith304WithoutBody() throws Exception {
+        String etag = etag(get(STOCK));
+
+        mockMvc.perform(get(STOCK).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void priceUpdateChangesTheEtag() throws Exception {
+        String before = etag(get(STOCK));
+
+        String updated = etag(put("/stocks/12345").param("price", "150.25"));
+
+        assertNotEquals(before, updated);
+        mockMvc.perform(get(STOCK).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, updated))
+                .andExpect(jsonPath("$.price").value(150.25));
+        mockMvc.perform(get(STOCK).header(HttpHeaders.IF_NONE_MATCH, updated))
+                .andExpect(status().isNotModified());
+    }
+
+    private String etag(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,90 @@
+package com.philomath.controller;
+
+import com.philomath.store.ProductStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTest {
+
+    private static final String PRODUCT = """
+            {"productId":1001,"quantity":50,"createdAt":"2024-01-15T10:30:00+05:30",
+             "manufactureDateAt":"2024-01-01","expiryTime":"23:59:59","price":1299.99,
+             "productName":"Wireless Headphones","description":"Premium noise-cancelling wireless headphones",
+             "sku":"WH1000XM5","discount":15.50}
+            """;
+
+    private final ProductStore productStore = new ProductStore();
+    private final MockMvc mockMvc;
+
+    ProductControllerTest() {
+        ProductController controller = new ProductController();
+        ReflectionTestUtils.setField(controller, "productStore", productStore);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void createdProductIsServedWithTheEtagOfItsWrite() throws Exception {
+        String etag = create();
+
+        mockMvc.perform(get("/products/1001"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.productName").value("Wireless Headphones"));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWith304WithoutBody() throws Exception {
+        String etag = create();
+
+        mockMvc.perform(get("/products/1001").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void rewriteChangesTheEtag() throws Exception {
+        String first = create();
+        String second = create();
+
+        assertNotEquals(first, second);
+        mockMvc.perform(get("/products/1001").header(HttpHeaders.IF_NONE_MATCH, first))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, second));
+    }
+
+    @Test
+    void sampleProductUsesTheUnversionedEtag() throws Exception {
+        String etag = productStore.unversionedEtag();
+
+        mockMvc.perform(get("/products/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.productName").value("Sample Product"));
+        mockMvc.perform(get("/products/7").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private String create() throws Exception {
+        String etag = mockMvc.perform(post("/products/create").contentType(MediaType.APPLICATION_JSON).content(PRODUCT))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+}
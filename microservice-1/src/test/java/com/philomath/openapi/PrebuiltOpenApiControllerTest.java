@@ -0,0 +1,92 @@
+package com.philomath.openapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PrebuiltOpenApiControllerTest {
+
+    private static final byte[] JSON = "{\"openapi\":\"3.0.1\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] gzipped = gzip(JSON);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new PrebuiltOpenApiController(gzipped, null))
+            .build();
+
+    @Test
+    void servesGzipAsBuiltAndIdentityInflated() throws Exception {
+        mockMvc.perform(get("/v3/api-docs").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(gzipped));
+
+        MvcResult identity = mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        assertArrayEquals(JSON, identity.getResponse().getContentAsByteArray());
+    }
+
+    @Test
+    void matchingEntityTagInListIsNotModified() throws Exception {
+        String etag = etag(null);
+
+        mockMvc.perform(get("/v3/api-docs").header(HttpHeaders.IF_NONE_MATCH, "\"stale\", " + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().exists(HttpHeaders.CACHE_CONTROL))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void wildcardAndWeakEntityTagsAreNotModified() throws Exception {
+        mockMvc.perform(get("/v3/api-docs").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/v3/api-docs").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag(null)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void entityTagOfAnotherEncodingIsModified() throws Exception {
+        String gzipEtag = etag("gzip");
+
+        // The gzip tag starts with the identity tag's hash, but is a different entity tag
+        mockMvc.perform(get("/v3/api-docs").header(HttpHeaders.IF_NONE_MATCH, gzipEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag(null)));
+    }
+
+    private String etag(String acceptEncoding) throws Exception {
+        var request = get("/v3/api-docs");
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,79 @@
+package com.philomath.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    // Large enough that no baseline probe happens during a test
+    private static final int NO_PROBE = 1_000;
+
+    @Test
+    void rejectsAboveLimitUntilASlotIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, NO_PROBE);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(System.nanoTime(), false);
+
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void droppedRequestLowersLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, NO_PROBE);
+
+        sample(limiter, 10_000_000, true);
+
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    void droppedRequestFasterThanBaselineStillLowersLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100, NO_PROBE);
+        sample(limiter, 10_000_000, false);
+
+        // A downstream failing fast, well under the no-load latency
+        sample(limiter, 1_000, true);
+
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    void limitStaysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 3, 2, 100, NO_PROBE);
+
+        for (int i = 0; i < 5; i++) {
+            sample(limiter, 10_000_000, true);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 100, NO_PROBE);
+        sample(limiter, 10_000_000, false);
+
+        // Enough requests in flight that the limiter is not application-limited
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        // Slightly above the baseline: an estimated queue of one
+        sample(limiter, 10_100_000, false);
+
+        assertTrue(limiter.getLimit() > 4);
+    }
+
+    private static void sample(AdaptiveConcurrencyLimiter limiter, long rttNanos, boolean dropped) {
+        assertTrue(limiter.tryAcquire());
+        limiter.release(System.nanoTime() - rttNanos, dropped);
+    }
+}
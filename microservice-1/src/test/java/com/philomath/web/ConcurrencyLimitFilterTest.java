@@ -0,0 +1,116 @@
+package com.philomath.web;
+
+import com.philomath.web.ConcurrencyLimitFilter.EndpointClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ConcurrencyLimitFilterTest {
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+    private final ConcurrencyLimitFilter filter;
+
+    ConcurrencyLimitFilterTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            limiters.put(endpointClass, new AdaptiveConcurrencyLimiter(endpointClass.name(), 10, 1, 100, 1_000));
+            rejections.put(endpointClass, meterRegistry.counter("rejected", "class", endpointClass.name()));
+        }
+        filter = new ConcurrencyLimitFilter(limiters, rejections, List.of("/**/bulk"), List.of("/actuator/**"), 2);
+    }
+
+    @Test
+    void classifiesByPathThenMethod() {
+        assertEquals(EndpointClass.BULK, filter.classify(new MockHttpServletRequest("POST", "/products/bulk")));
+        assertEquals(EndpointClass.VALIDATION_WRITE, filter.classify(new MockHttpServletRequest("POST", "/products/create")));
+        assertEquals(EndpointClass.VALIDATION_WRITE, filter.classify(new MockHttpServletRequest("PUT", "/stocks/12345")));
+        assertEquals(EndpointClass.CHEAP_READ, filter.classify(new MockHttpServletRequest("GET", "/stocks/12345")));
+    }
+
+    @Test
+    void rejectsAboveLimitWith503AndRetryAfter() throws Exception {
+        AdaptiveConcurrencyLimiter reads = limiters.get(EndpointClass.CHEAP_READ);
+        while (reads.tryAcquire()) {
+            // Take every slot
+        }
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/stocks/12345"), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, rejections.get(EndpointClass.CHEAP_READ).count());
+        // Other classes keep their own capacity
+        MockHttpServletRequest write = new MockHttpServletRequest("POST", "/products/create");
+        MockFilterChain writeChain = new MockFilterChain();
+        filter.doFilter(write, new MockHttpServletResponse(), writeChain);
+        assertSame(write, writeChain.getRequest());
+    }
+
+    @Test
+    void serverErrorReleasesSlotAndLowersLimit() throws Exception {
+        AdaptiveConcurrencyLimiter writes = limiters.get(EndpointClass.VALIDATION_WRITE);
+        FilterChain failing = (request, response) -> ((MockHttpServletResponse) response).setStatus(500);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/products/create"), new MockHttpServletResponse(), failing);
+
+        assertEquals(0, writes.getInFlight());
+        assertEquals(9, writes.getLimit());
+    }
+
+    @Test
+    void exceptionReleasesSlotAndLowersLimit() {
+        AdaptiveConcurrencyLimiter writes = limiters.get(EndpointClass.VALIDATION_WRITE);
+        FilterChain throwing = (request, response) -> {
+            throw new IllegalStateException("downstream failed");
+        };
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("POST", "/products/create"), new MockHttpServletResponse(), throwing));
+
+        assertEquals(0, writes.getInFlight());
+        assertEquals(9, writes.getLimit());
+    }
+
+    @Test
+    void clientErrorIsNotAnOverloadSignal() throws Exception {
+        AdaptiveConcurrencyLimiter writes = limiters.get(EndpointClass.VALIDATION_WRITE);
+        FilterChain invalid = (request, response) -> ((MockHttpServletResponse) response).setStatus(400);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/products/create"), new MockHttpServletResponse(), invalid);
+
+        assertEquals(0, writes.getInFlight());
+        assertEquals(10, writes.getLimit());
+    }
+
+    @Test
+    void leavesExcludedPathsAlone() throws Exception {
+        AdaptiveConcurrencyLimiter reads = limiters.get(EndpointClass.CHEAP_READ);
+        while (reads.tryAcquire()) {
+            // Take every slot
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+}
@@ -0,0 +1,197 @@
+package com.philomath.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyFilterTest {
+
+    private static final String PATH = "/products/create";
+    private static final String BODY = "{\"name\":\"Laptop\",\"price\":999.99}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            Caffeine.newBuilder().maximumSize(100).build(), Set.of(PATH), 1024, objectMapper);
+    // Bodies the application saw, one per request that got past the filter
+    private final List<String> handled = new ArrayList<>();
+
+    @Test
+    void replaysStoredResponseWithItsHeaders() throws Exception {
+        FilterChain created = chain(201, "\"product-1\"");
+        MockHttpServletResponse first = post("key-1", BODY, created);
+
+        MockHttpServletResponse replay = post("key-1", BODY, created);
+
+        assertEquals(List.of(BODY), handled);
+        assertEquals(201, replay.getStatus());
+        assertEquals("true", replay.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("\"product-1\"", replay.getHeader(HttpHeaders.ETAG));
+        assertEquals("/products/1", replay.getHeader(HttpHeaders.LOCATION));
+        assertEquals("application/json", replay.getContentType());
+        assertArrayEquals("{\"status\":201}".getBytes(StandardCharsets.UTF_8), first.getContentAsByteArray());
+        assertArrayEquals(first.getContentAsByteArray(), replay.getContentAsByteArray());
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void rejectsSameKeyWithAnotherBody() throws Exception {
+        post("key-1", BODY, chain(201, "\"product-1\""));
+
+        MockHttpServletResponse reused = post("key-1", BODY.replace("Laptop", "Phone"), chain(201, "\"product-2\""));
+
+        assertEquals(422, reused.getStatus());
+        assertEquals("IdempotencyKeyReused", error(reused).get("error"));
+        assertEquals(1, handled.size());
+    }
+
+    @Test
+    void rejectsSameKeyWhileFirstRequestIsInProgress() throws Exception {
+        List<MockHttpServletResponse> concurrent = new ArrayList<>();
+        // The retry arrives while the first request is still in the application
+        FilterChain slow = (request, response) -> {
+            concurrent.add(post("key-1", BODY, chain(201, "\"product-2\"")));
+            chain(201, "\"product-1\"").doFilter(request, response);
+        };
+
+        MockHttpServletResponse first = post("key-1", BODY, slow);
+
+        assertEquals(201, first.getStatus());
+        assertEquals(409, concurrent.get(0).getStatus());
+        assertEquals("IdempotencyKeyInProgress", error(concurrent.get(0)).get("error"));
+        assertEquals(List.of(BODY), handled);
+    }
+
+    @Test
+    void doesNotStoreServerErrors() throws Exception {
+        MockHttpServletResponse failed = post("key-1", BODY, chain(503, null));
+
+        MockHttpServletResponse retry = post("key-1", BODY, chain(201, "\"product-1\""));
+
+        assertEquals(503, failed.getStatus());
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, handled.size());
+    }
+
+    @Test
+    void releasesKeyWhenApplicationThrows() throws Exception {
+        FilterChain throwing = (request, response) -> {
+            throw new IllegalStateException("store unavailable");
+        };
+        assertThrows(IllegalStateException.class, () -> post("key-1", BODY, throwing));
+
+        assertEquals(201, post("key-1", BODY, chain(201, "\"product-1\"")).getStatus());
+    }
+
+    @Test
+    void rejectsBodyOverCapWith413() throws Exception {
+        String large = "{\"name\":\"" + "x".repeat(2000) + "\"}";
+
+        MockHttpServletResponse response = post("key-1", large, chain(201, "\"product-1\""));
+
+        assertEquals(413, response.getStatus());
+        assertEquals("IdempotentRequestTooLarge", error(response).get("error"));
+        assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    void ignoresRequestsWithoutKeyOrOnOtherPaths() throws Exception {
+        FilterChain created = chain(201, "\"product-1\"");
+
+        post(null, BODY, created);
+        post(null, BODY, created);
+        filter.doFilter(request("/departments/bulk", "key-1", BODY), new MockHttpServletResponse(), created);
+        filter.doFilter(request("/departments/bulk", "key-1", BODY), new MockHttpServletResponse(), created);
+
+        assertEquals(4, handled.size());
+    }
+
+    @Test
+    void bufferedBodyCanBeReadNonBlocking() throws Exception {
+        FilterChain nonBlocking = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    handled.add(read.toString(StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+        };
+
+        post("key-1", BODY, nonBlocking);
+
+        assertEquals(List.of(BODY), handled);
+    }
+
+    /**
+     * Stands in for the controller: records the body it read, and answers like a create endpoint.
+     */
+    private FilterChain chain(int status, String etag) {
+        return (request, response) -> {
+            handled.add(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            if (etag != null) {
+                http.setHeader(HttpHeaders.ETAG, etag);
+                http.setHeader(HttpHeaders.LOCATION, "/products/1");
+            }
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"status\":" + status + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse post(String key, String body, FilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(PATH, key, body), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private Map<?, ?> error(MockHttpServletResponse response) throws Exception {
+        return objectMapper.readValue(response.getContentAsByteArray(), Map.class);
+    }
+}
@@ -1,148 +1,368 @@
 package com.philomath.config;
 
-import com.nimbusds.jose.JOSEObjectType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.crypto.RSASSASigner;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.philomath.introspection.AsyncOpaqueTokenIntrospector;
+import com.philomath.introspection.CachingOpaqueTokenIntrospector;
+import com.philomath.introspection.CircuitBreaker;
+import com.philomath.introspection.ClientAssertionPool;
+import com.philomath.introspection.ClientAssertionSigner;
+import com.philomath.introspection.ConnectionMetricsListener;
+import com.philomath.introspection.GuardedIntrospector;
+import com.philomath.introspection.InMemoryIntrospectionStore;
+import com.philomath.introspection.IntrospectionResponseParser;
+import com.philomath.introspection.KeycloakOpaqueTokenIntrospector;
+import com.philomath.introspection.PrincipalSnapshotCodec;
+import com.philomath.introspection.RedisIntrospectionStore;
+import com.philomath.introspection.RevocationIndex;
+import com.philomath.introspection.SharedIntrospectionStore;
+import com.philomath.introspection.SharedIntrospectionTier;
+import com.philomath.introspection.TimedIntrospector;
+import com.philomath.security.AuthorityMapper;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
 import java.io.InputStream;
+import java.net.URI;
 import java.security.KeyStore;
 import java.security.PrivateKey;
-import java.security.interfaces.RSAPrivateKey;
-import java.time.Instant;
-import java.util.*;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
 
 @Configuration
-@EnableConfigurationProperties(IntrospectionConfig.KeycloakPrivateJwtProps.class)
+@EnableConfigurationProperties({
+        IntrospectionConfig.KeycloakPrivateJwtProps.class,
+        IntrospectionConfig.IntrospectionProps.class,
+        IntrospectionConfig.IntrospectionCacheProps.class,
+        IntrospectionConfig.SharedCacheProps.class
+})
 public class IntrospectionConfig {
 
     @Bean
-    OpaqueTokenIntrospector opaqueTokenIntrospector(
+    CloseableHttpAsyncClient introspectionHttpClient(IntrospectionProps introspectionProps, MeterRegistry meterRegistry) {
+        IntrospectionProps.Http http = introspectionProps.http();
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(http.maxConnections())
+                .setMaxConnPerRoute(http.maxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(http.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(http.readTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                // HTTP/2 is negotiated via ALPN, so it only applies to an https introspection-uri
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(http.http2() ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                        .build())
+                .build();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        // Waiting for a pooled connection; fails fast once all are busy
+                        .setConnectionRequestTimeout(Timeout.of(http.poolTimeout()))
+                        .setResponseTimeout(Timeout.of(http.readTimeout()))
+                        .build())
+                .setIOSessionListener(new ConnectionMetricsListener(meterRegistry, "introspection.http"))
+                .evictIdleConnections(TimeValue.of(http.idleTimeout()))
+                .disableCookieManagement()
+                .disableAuthCaching()
+                .build();
+        // Exposes httpcomponents.httpclient.pool.{total.max,total.connections,total.pending,route.max.default}
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "introspection").bindTo(meterRegistry);
+        client.start();
+        return client;
+    }
+
+    @Bean
+    ClientAssertionSigner clientAssertionSigner(
             OAuth2ResourceServerProperties resourceServerProps,
             KeycloakPrivateJwtProps props
     ) {
-        String introspectionUri = resourceServerProps.getOpaquetoken().getIntrospectionUri();
-        String clientId = resourceServerProps.getOpaquetoken().getClientId();
-        RestTemplate rest = new RestTemplate();
-        RSAPrivateKey privateKey = loadPrivateKey(props);
-        String audience = props.clientAssertion().audience();
-
-        return (String token) -> {
-            MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
-            form.add("token", token);
-            form.add("client_id", clientId);
-            form.add(
-                    "client_assertion_type",
-                    "urn:ietf:params:oauth:client-assertion-type:jwt-bearer"
-            );
-            form.add("client_assertion", buildClientAssertionJwt(clientId, audience, props, privateKey));
+        KeycloakPrivateJwtProps.ClientAssertion clientAssertion = props.clientAssertion();
+        return ClientAssertionSigner.create(
+                JWSAlgorithm.parse(clientAssertion.algorithm()),
+                loadPrivateKey(props),
+                props.keystore().kid(),
+                resourceServerProps.getOpaquetoken().getClientId(),
+                clientAssertion.audience(),
+                clientAssertion.lifetime()
+        );
+    }
+
+    @Bean
+    ClientAssertionPool clientAssertionPool(
+            ClientAssertionSigner clientAssertionSigner,
+            KeycloakPrivateJwtProps props,
+            MeterRegistry meterRegistry
+    ) {
+        KeycloakPrivateJwtProps.Pool poolProps = props.clientAssertion().pool();
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        Timer signing = Timer.builder("introspection.client_assertion.sign")
+                .description("Time to sign one client assertion")
+                .tag("algorithm", clientAssertionSigner.getAlgorithm().getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> body =
-                    rest.postForObject(introspectionUri, new HttpEntity<>(form, headers), Map.class);
+        ClientAssertionPool pool = new ClientAssertionPool(
+                () -> signing.record(clientAssertionSigner::sign),
+                poolProps.size(),
+                poolProps.maxAge(),
+                Counter.builder("introspection.client_assertion.pool.fallbacks")
+                        .description("Client assertions signed inline because the pool was empty")
+                        .register(meterRegistry),
+                Timer.builder("introspection.client_assertion.pool.refill_lag")
+                        .description("Time from the pool dropping below its size to being full again")
+                        .register(meterRegistry)
+        );
+        Gauge.builder("introspection.client_assertion.pool.depth", pool, ClientAssertionPool::depth)
+                .register(meterRegistry);
+        return pool;
+    }
 
-            boolean active = body != null && Boolean.TRUE.equals(body.get("active"));
-            if (!active)
-                throw new IllegalArgumentException("Token is not active");
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.introspection.shared.type", havingValue = "redis")
+    SharedIntrospectionStore redisIntrospectionStore(SharedCacheProps props) {
+        RedisURI uri = RedisURI.create(props.redisUri());
+        uri.setTimeout(props.timeout());
+        return new RedisIntrospectionStore(RedisClient.create(uri), props.keyPrefix(), props.channel());
+    }
 
-            // Keycloak introspection commonly returns numeric timestamps (epoch seconds) for exp/iat.
-            // Spring/Security code and app code often expects Instant, so normalize here.
-            Map<String, Object> attrs = new HashMap<>(Objects.requireNonNull(body));
-            normalizeEpochSecondsToInstant(attrs, "exp");
-            normalizeEpochSecondsToInstant(attrs, "iat");
-            normalizeEpochSecondsToInstant(attrs, "nbf");
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.introspection.shared.type", havingValue = "in-memory")
+    SharedIntrospectionStore inMemoryIntrospectionStore(IntrospectionCacheProps cacheProps) {
+        return new InMemoryIntrospectionStore(cacheProps.maximumSize());
+    }
 
-            return new DefaultOAuth2AuthenticatedPrincipal(attrs, List.of());
-        };
+    @Bean
+    OpaqueTokenIntrospector opaqueTokenIntrospector(
+            OAuth2ResourceServerProperties resourceServerProps,
+            IntrospectionProps introspectionProps,
+            IntrospectionCacheProps cacheProps,
+            ClientAssertionPool clientAssertionPool,
+            CloseableHttpAsyncClient introspectionHttpClient,
+            ObjectMapper objectMapper,
+            AuthorityMapper authorityMapper,
+            RevocationIndex revocationIndex,
+            SharedCacheProps sharedProps,
+            ObjectProvider<SharedIntrospectionStore> sharedStore,
+            MeterRegistry meterRegistry
+    ) {
+        KeycloakOpaqueTokenIntrospector keycloak = new KeycloakOpaqueTokenIntrospector(
+                introspectionHttpClient,
+                URI.create(resourceServerProps.getOpaquetoken().getIntrospectionUri()),
+                resourceServerProps.getOpaquetoken().getClientId(),
+                clientAssertionPool::take,
+                new IntrospectionResponseParser(objectMapper.getFactory(), authorityMapper)
+        );
+        // introspection.duration{outcome=active|inactive|error}
+        TimedIntrospector timed = new TimedIntrospector(keycloak, meterRegistry);
+        GuardedIntrospector guarded = guarded(timed, introspectionProps, meterRegistry);
+        if (!cacheProps.enabled()) {
+            return guarded;
+        }
+        AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> cache =
+                CachingOpaqueTokenIntrospector.cacheBuilder(cacheProps.maximumSize())
+                        .removalListener(revocationIndex::onRemoval)
+                        .recordStats()
+                        .buildAsync();
+        revocationIndex.attach(cache);
+        // Exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "introspection");
+        SharedIntrospectionStore store = sharedStore.getIfAvailable();
+        SharedIntrospectionTier shared = null;
+        if (store != null) {
+            shared = sharedTier(store, sharedProps, authorityMapper, meterRegistry);
+            revocationIndex.attach(shared);
+        }
+        return new CachingOpaqueTokenIntrospector(
+                guarded,
+                cache,
+                revocationIndex,
+                shared,
+                cacheProps.maxTtl(),
+                cacheProps.negativeTtl(),
+                introspectionProps.timeout(),
+                cacheProps.staleGrace()
+        );
     }
 
-    private void normalizeEpochSecondsToInstant(Map<String, Object> attrs, String key) {
-        Object v = attrs.get(key);
-        if (v instanceof Number n) {
-            attrs.put(key, Instant.ofEpochSecond(n.longValue()));
+    private static SharedIntrospectionTier sharedTier(SharedIntrospectionStore store,
+                                                      SharedCacheProps props,
+                                                      AuthorityMapper authorityMapper,
+                                                      MeterRegistry meterRegistry) {
+        byte[] key;
+        if (props.encryptionKey() != null && !props.encryptionKey().isBlank()) {
+            key = Base64.getDecoder().decode(props.encryptionKey());
+        } else if (store instanceof InMemoryIntrospectionStore) {
+            // Entries never leave this JVM, so a per-process key will do
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            throw new IllegalStateException("app.introspection.shared.encryption-key must be set for a shared cache");
         }
+        return new SharedIntrospectionTier(
+                store,
+                new PrincipalSnapshotCodec(key, authorityMapper),
+                props.timeout(),
+                Counter.builder("introspection.shared.gets").tag("result", "hit").register(meterRegistry),
+                Counter.builder("introspection.shared.gets").tag("result", "miss").register(meterRegistry),
+                Counter.builder("introspection.shared.gets").tag("result", "error").register(meterRegistry),
+                Counter.builder("introspection.shared.write_errors").register(meterRegistry)
+        );
     }
 
-    private RSAPrivateKey loadPrivateKey(KeycloakPrivateJwtProps props) {
-        try (InputStream is = props.keystore().location().getInputStream()) {
-            KeyStore ks = KeyStore.getInstance("JKS");
-            ks.load(is, props.keystore().password().toCharArray());
+    private static GuardedIntrospector guarded(AsyncOpaqueTokenIntrospector delegate,
+                                               IntrospectionProps introspectionProps,
+                                               MeterRegistry meterRegistry) {
+        IntrospectionProps.Circuit cb = introspectionProps.circuitBreaker();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(cb.failureRateThreshold(), cb.windowSize(),
+                cb.minimumCalls(), cb.openDuration(), cb.halfOpenCalls());
+        GuardedIntrospector guarded = new GuardedIntrospector(
+                delegate,
+                circuitBreaker,
+                introspectionProps.maxConcurrent(),
+                cb.slowCallDuration(),
+                Counter.builder("introspection.rejected").tag("reason", "circuit_open").register(meterRegistry),
+                Counter.builder("introspection.rejected").tag("reason", "bulkhead_full").register(meterRegistry)
+        );
+        // 0 closed, 1 open, 2 half-open
+        Gauge.builder("introspection.circuit.state", circuitBreaker, b -> b.getState().ordinal())
+                .register(meterRegistry);
+        Gauge.builder("introspection.inflight", guarded, GuardedIntrospector::getInFlight)
+                .register(meterRegistry);
+        return guarded;
+    }
+
+    private PrivateKey loadPrivateKey(KeycloakPrivateJwtProps props) {
+        KeycloakPrivateJwtProps.Keystore keystore = props.keystore();
+        try (InputStream is = keystore.location().getInputStream()) {
+            KeyStore ks = KeyStore.getInstance(keystore.type());
+            ks.load(is, keystore.password().toCharArray());
             PrivateKey key = (PrivateKey) ks.getKey(
-                    props.keystore().keyAlias(),
-                    props.keystore().keyPassword().toCharArray()
+                    keystore.keyAlias(),
+                    keystore.keyPassword().toCharArray()
             );
-            return (RSAPrivateKey) key;
+            if (key == null) {
+                throw new IllegalStateException("No private key under alias " + keystore.keyAlias());
+            }
+            return key;
         } catch (Exception e) {
-            throw new IllegalStateException("Failed to load private key from keystore.jks", e);
+            throw new IllegalStateException("Failed to load private key from " + keystore.location(), e);
         }
     }
 
-    private String buildClientAssertionJwt(
-            String clientId,
-            String audience,
-            KeycloakPrivateJwtProps props,
-            RSAPrivateKey privateKey
+    @ConfigurationProperties(prefix = "app.introspection")
+    public record IntrospectionProps(
+            // Bounds the Keycloak call; concurrent requests for the same token share it
+            @DefaultValue("5s") Duration timeout,
+            // Bulkhead: introspection calls outstanding at once, beyond which requests fail fast
+            @DefaultValue("40") int maxConcurrent,
+            @DefaultValue Circuit circuitBreaker,
+            @DefaultValue Http http
     ) {
-        try {
-            Instant now = Instant.now();
-
-            JWTClaimsSet claims = new JWTClaimsSet.Builder()
-                    .issuer(clientId)
-                    .subject(clientId)
-                    .audience(audience)
-                    .issueTime(Date.from(now))
-                    .expirationTime(Date.from(now.plusSeconds(60)))
-                    .jwtID(UUID.randomUUID().toString())
-                    .build();
-
-            JWSHeader.Builder headerBuilder = new JWSHeader.Builder(JWSAlgorithm.RS256)
-                    .type(JOSEObjectType.JWT);
-
-            // Only set `kid` when you know it matches what Keycloak expects.
-            String kid = props.keystore().kid();
-            if (kid != null && !kid.isBlank()) {
-                headerBuilder.keyID(kid);
-            }
-
-            JWSHeader header = headerBuilder.build();
+        public record Circuit(
+                // Percentage of failed or slow calls in the window that opens the circuit
+                @DefaultValue("50") int failureRateThreshold,
+                @DefaultValue("20") int windowSize,
+                @DefaultValue("10") int minimumCalls,
+                @DefaultValue("2s") Duration slowCallDuration,
+                @DefaultValue("10s") Duration openDuration,
+                @DefaultValue("3") int halfOpenCalls
+        ) {
+        }
 
-            SignedJWT jwt = new SignedJWT(header, claims);
-            jwt.sign(new RSASSASigner(privateKey));
-            return jwt.serialize();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to build/sign client assertion JWT", e);
+        public record Http(
+                @DefaultValue("50") int maxConnections,
+                @DefaultValue("1s") Duration connectTimeout,
+                @DefaultValue("3s") Duration readTimeout,
+                @DefaultValue("500ms") Duration poolTimeout,
+                @DefaultValue("60s") Duration idleTimeout,
+                @DefaultValue("false") boolean http2
+        ) {
         }
     }
 
+    @ConfigurationProperties(prefix = "app.introspection.cache")
+    public record IntrospectionCacheProps(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("100000") long maximumSize,
+            // Upper bound on how long a token revoked at Keycloak is still accepted here
+            @DefaultValue("5m") Duration maxTtl,
+            @DefaultValue("30s") Duration negativeTtl,
+            // Stale-while-revalidate: 0 disables it
+            @DefaultValue("0s") Duration staleGrace
+    ) {
+    }
+
+    @ConfigurationProperties(prefix = "app.introspection.shared")
+    public record SharedCacheProps(
+            // none, redis, or in-memory (a stand-in inside this JVM, for tests)
+            @DefaultValue("none") String type,
+            @DefaultValue("redis://localhost:6379") String redisUri,
+            @DefaultValue("introspection:") String keyPrefix,
+            // Pub/sub channel carrying revocations between replicas
+            @DefaultValue("introspection:revocations") String channel,
+            // Base64 AES key (16, 24 or 32 bytes), the same on every replica
+            String encryptionKey,
+            // A shared lookup slower than this counts as a miss and goes to Keycloak
+            @DefaultValue("50ms") Duration timeout
+    ) {
+    }
+
     @ConfigurationProperties(prefix = "app.keycloak")
     public record KeycloakPrivateJwtProps(
             ClientAssertion clientAssertion,
             Keystore keystore
     ) {
-        public record ClientAssertion(String audience) {
+        public record ClientAssertion(
+                String audience,
+                // RS256, PS256 (RSA key), ES256 (P-256 EC key) or EdDSA (Ed25519 key)
+                @DefaultValue("RS256") String algorithm,
+                @DefaultValue("60s") Duration lifetime,
+                @DefaultValue Pool pool
+        ) {
+        }
+
+        public record Pool(
+                // 0 signs every assertion inline on the request path
+                @DefaultValue("16") int size,
+                // Pooled assertions older than this are discarded; must stay well below the lifetime
+                @DefaultValue("30s") Duration maxAge
+        ) {
         }
 
         public record Keystore(
                 Resource location,
+                // JKS or PKCS12
+                @DefaultValue("JKS") String type,
                 String password,
                 String keyAlias,
                 String keyPassword,
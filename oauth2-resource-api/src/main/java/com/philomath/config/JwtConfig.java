@@ -0,0 +1,201 @@
+package com.philomath.config;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
+import com.nimbusds.jose.proc.JOSEObjectTypeVerifier;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.philomath.introspection.RevocationIndex;
+import com.philomath.security.AuthorityMapper;
+import com.philomath.security.HybridAuthenticationManagerResolver;
+import com.philomath.security.InstrumentedAuthenticationManager;
+import com.philomath.security.LogoutTokenVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.OpaqueTokenAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Local validation of JWT access tokens against Keycloak's JWKS, next to opaque-token
+ * introspection.
+ * <p>
+ * The JWKS is fetched on the first JWT, cached and refreshed in the background before it
+ * expires. A token signed with a key the cache has not seen (Keycloak rotated its keys) triggers
+ * an immediate, rate-limited refresh. If Keycloak is unreachable, the last JWKS keeps being used
+ * for {@code outage-tolerance}.
+ * <p>
+ * An access token must carry Keycloak's {@code typ: Bearer} claim, so ID, refresh and logout
+ * tokens of the realm are refused, and must be addressed to this API: its {@code aud} must
+ * contain one of {@code spring.security.oauth2.resourceserver.jwt.audiences}, or the client id
+ * of this API when none are configured.
+ */
+@Configuration
+@EnableConfigurationProperties(JwtConfig.JwtProps.class)
+@ConditionalOnProperty(prefix = "app.jwt", name = "enabled", matchIfMissing = true)
+public class JwtConfig {
+
+    static final JOSEObjectType LOGOUT_TOKEN_TYPE = new JOSEObjectType("logout+jwt");
+    private static final String KEYCLOAK_TOKEN_TYPE = "typ";
+    private static final String ACCESS_TOKEN_TYPE = "Bearer";
+
+    @Bean
+    JWKSource<SecurityContext> jwkSource(OAuth2ResourceServerProperties resourceServerProps, JwtProps props) {
+        JwtProps.Jwks jwks = props.jwks();
+        URL jwkSetUrl;
+        try {
+            jwkSetUrl = new URL(resourceServerProps.getJwt().getJwkSetUri());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid spring.security.oauth2.resourceserver.jwt.jwk-set-uri", e);
+        }
+        return JWKSourceBuilder.create(jwkSetUrl, new DefaultResourceRetriever(
+                        (int) jwks.connectTimeout().toMillis(), (int) jwks.readTimeout().toMillis(), 51200))
+                .cache(jwks.ttl().toMillis(), jwks.refreshTimeout().toMillis())
+                // Scheduled: refreshed on a background thread, requests never wait for the fetch
+                .refreshAheadCache(jwks.refreshAhead().toMillis(), true)
+                // Bounds refetches triggered by tokens carrying an unknown kid
+                .rateLimited(jwks.minRefetchInterval().toMillis())
+                .outageTolerant(jwks.outageTolerance().toMillis())
+                .retrying(true)
+                .build();
+    }
+
+    @Bean
+    JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource, OAuth2ResourceServerProperties resourceServerProps,
+                          JwtProps props, RevocationIndex revocationIndex) {
+        List<OAuth2TokenValidator<Jwt>> validators = validators(resourceServerProps.getJwt().getIssuerUri(),
+                accessTokenAudiences(resourceServerProps, props));
+        // Keycloak marks access tokens typ=Bearer; ID tokens are ID, refresh tokens Refresh
+        validators.add(new JwtClaimValidator<String>(KEYCLOAK_TOKEN_TYPE, ACCESS_TOKEN_TYPE::equals));
+        // Pushed revocations (back-channel logout, /internal/revocations) apply to JWTs as well
+        validators.add(jwt -> revocationIndex.isRevoked(jwt.getSubject(), jwt.getClaimAsString("sid"), jwt.getId(), jwt.getIssuedAt())
+                ? OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_token", "Token has been revoked", null))
+                : OAuth2TokenValidatorResult.success());
+        return decoder(jwkSource, DefaultJOSEObjectTypeVerifier.JWT, validators);
+    }
+
+    @Bean
+    LogoutTokenVerifier logoutTokenVerifier(JWKSource<SecurityContext> jwkSource,
+                                            OAuth2ResourceServerProperties resourceServerProps) {
+        // Keycloak addresses logout tokens to the client that registered the back-channel logout URL
+        List<OAuth2TokenValidator<Jwt>> validators = validators(resourceServerProps.getJwt().getIssuerUri(),
+                List.of(resourceServerProps.getOpaquetoken().getClientId()));
+        validators.add(LogoutTokenVerifier::validate);
+        // Keycloak types logout tokens as logout+jwt (OIDC Back-Channel Logout 1.0, section 2.4)
+        return new LogoutTokenVerifier(decoder(jwkSource,
+                new DefaultJOSEObjectTypeVerifier<>(LOGOUT_TOKEN_TYPE, JOSEObjectType.JWT, null), validators));
+    }
+
+    @Bean
+    HybridAuthenticationManagerResolver hybridAuthenticationManagerResolver(JwtDecoder jwtDecoder,
+                                                                            OpaqueTokenIntrospector opaqueTokenIntrospector,
+                                                                            AuthorityMapper authorityMapper,
+                                                                            MeterRegistry meterRegistry) {
+        JwtAuthenticationProvider jwtProvider = new JwtAuthenticationProvider(jwtDecoder);
+        // Same shared authorities as introspected tokens: SCOPE_<scope> and ROLE_<realm role>
+        jwtProvider.setJwtAuthenticationConverter(jwt -> new JwtAuthenticationToken(jwt,
+                authorityMapper.authorities(jwt.getClaimAsString("scope"),
+                        AuthorityMapper.realmRoles(jwt.getClaimAsMap("realm_access"))),
+                jwt.getSubject()));
+        return new HybridAuthenticationManagerResolver(
+                new InstrumentedAuthenticationManager(new ProviderManager(jwtProvider), "jwt", meterRegistry),
+                new InstrumentedAuthenticationManager(
+                        new ProviderManager(new OpaqueTokenAuthenticationProvider(opaqueTokenIntrospector)), "opaque", meterRegistry)
+        );
+    }
+
+    private static NimbusJwtDecoder decoder(JWKSource<SecurityContext> jwkSource, JOSEObjectTypeVerifier<SecurityContext> typeVerifier,
+                                            List<OAuth2TokenValidator<Jwt>> validators) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSTypeVerifier(typeVerifier);
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+                new HashSet<>(List.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256, JWSAlgorithm.PS256)), jwkSource));
+        // Claims are checked by the Spring validators
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(validators));
+        return decoder;
+    }
+
+    /**
+     * The configured audiences or, without any, the client id of this API.
+     */
+    static List<String> accessTokenAudiences(OAuth2ResourceServerProperties resourceServerProps, JwtProps props) {
+        List<String> audiences = resourceServerProps.getJwt().getAudiences();
+        if (!audiences.isEmpty()) {
+            return audiences;
+        }
+        String clientId = resourceServerProps.getOpaquetoken().getClientId();
+        if (clientId != null && !clientId.isBlank()) {
+            return List.of(clientId);
+        }
+        if (props.requireAudience()) {
+            throw new IllegalStateException("JWT access tokens need an audience: set spring.security.oauth2.resourceserver.jwt.audiences"
+                    + " or opaque-token.client-id, or app.jwt.require-audience=false to accept any");
+        }
+        return List.of();
+    }
+
+    private static List<OAuth2TokenValidator<Jwt>> validators(String issuer, List<String> audiences) {
+        List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+        validators.add(JwtValidators.createDefaultWithIssuer(issuer));
+        if (!audiences.isEmpty()) {
+            validators.add(new JwtClaimValidator<Collection<String>>(JwtClaimNames.AUD,
+                    aud -> aud != null && aud.stream().anyMatch(audiences::contains)));
+        }
+        return validators;
+    }
+
+    @ConfigurationProperties(prefix = "app.jwt")
+    public record JwtProps(
+            @DefaultValue("true") boolean enabled,
+            // Refuse to start without an audience to check access tokens against
+            @DefaultValue("true") boolean requireAudience,
+            @DefaultValue Jwks jwks
+    ) {
+        public record Jwks(
+                @DefaultValue("10m") Duration ttl,
+                // Refresh this long before the cached JWKS expires
+                @DefaultValue("1m") Duration refreshAhead,
+                @DefaultValue("15s") Duration refreshTimeout,
+                @DefaultValue("30s") Duration minRefetchInterval,
+                @DefaultValue("1h") Duration outageTolerance,
+                @DefaultValue("1s") Duration connectTimeout,
+                @DefaultValue("2s") Duration readTimeout
+        ) {
+        }
+    }
+}
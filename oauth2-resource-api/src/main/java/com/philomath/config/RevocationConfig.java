@@ -0,0 +1,30 @@
+package com.philomath.config;
+
+import com.philomath.introspection.RevocationIndex;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(RevocationConfig.RevocationProps.class)
+public class RevocationConfig {
+
+    @Bean
+    RevocationIndex revocationIndex(RevocationProps props) {
+        return new RevocationIndex(props.retention());
+    }
+
+    @ConfigurationProperties(prefix = "app.revocation")
+    public record RevocationProps(
+            // Clients (client_id / azp of their bearer token) allowed to call POST /internal/revocations
+            @DefaultValue List<String> allowedClients,
+            // How long revocations are remembered; should cover the access token lifetime
+            @DefaultValue("15m") Duration retention
+    ) {
+    }
+}
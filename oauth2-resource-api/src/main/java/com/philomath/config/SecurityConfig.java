@@ -1,28 +1,123 @@
 package com.philomath.config;
 
+import com.philomath.introspection.AsyncOpaqueTokenIntrospector;
+import com.philomath.security.AsyncOpaqueTokenAuthenticationFilter;
+import com.philomath.security.AuthenticationMetrics;
+import com.philomath.security.AuthorityMapper;
+import com.philomath.security.ClientIdAuthorizationManager;
+import com.philomath.security.HybridAuthenticationManagerResolver;
+import com.philomath.security.InstrumentedAuthenticationManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.OpaqueTokenAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 @Configuration
+@EnableConfigurationProperties(SecurityConfig.AsyncAuthProps.class)
 public class SecurityConfig {
 
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    AuthorityMapper authorityMapper() {
+        return new AuthorityMapper();
+    }
+
+    @Bean
+    SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                            ObjectProvider<HybridAuthenticationManagerResolver> hybridResolver,
+                                            RevocationConfig.RevocationProps revocationProps,
+                                            OpaqueTokenIntrospector opaqueTokenIntrospector,
+                                            IntrospectionConfig.IntrospectionProps introspectionProps,
+                                            AsyncAuthProps asyncProps,
+                                            MeterRegistry meterRegistry) throws Exception {
+        HybridAuthenticationManagerResolver resolver = hybridResolver.getIfAvailable();
+        AsyncOpaqueTokenAuthenticationFilter asyncFilter = asyncProps.enabled()
+                ? asyncAuthenticationFilter(opaqueTokenIntrospector, resolver != null, introspectionProps, asyncProps, meterRegistry)
+                : null;
+        if (asyncFilter != null) {
+            http.addFilterBefore(asyncFilter, BearerTokenAuthenticationFilter.class);
+        }
         return http
                 .cors(Customizer.withDefaults())
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS).permitAll()
                         .requestMatchers("/public/**").permitAll()
+                        // Scraped by Prometheus and probed by the orchestrator. Actuator only listens on
+                        // management.server.port, so these are not reachable through the API port
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll()
+                        // Authenticated by the signature of the logout token itself
+                        .requestMatchers(HttpMethod.POST, "/backchannel-logout").permitAll()
+                        .requestMatchers("/internal/**").access(new ClientIdAuthorizationManager(revocationProps.allowedClients()))
                         .anyRequest().authenticated()
                 )
-                // Validate Bearer tokens by introspecting them at Keycloak (uses client credentials)
-                .oauth2ResourceServer(oauth2 -> oauth2.opaqueToken(Customizer.withDefaults()))
+                .oauth2ResourceServer(oauth2 -> {
+                    if (asyncFilter != null) {
+                        // Skip requests the async filter already authenticated
+                        oauth2.bearerTokenResolver(asyncFilter.bearerTokenResolver());
+                    }
+                    if (resolver != null) {
+                        // JWTs are verified locally against the cached JWKS, opaque tokens are introspected
+                        oauth2.authenticationManagerResolver(resolver);
+                    } else {
+                        // Validate Bearer tokens by introspecting them at Keycloak (uses client credentials)
+                        AuthenticationManager opaqueToken = new InstrumentedAuthenticationManager(
+                                new ProviderManager(new OpaqueTokenAuthenticationProvider(opaqueTokenIntrospector)),
+                                "opaque", meterRegistry);
+                        oauth2.authenticationManagerResolver(request -> opaqueToken);
+                    }
+                })
                 .build();
     }
-}
 
+    private static AsyncOpaqueTokenAuthenticationFilter asyncAuthenticationFilter(OpaqueTokenIntrospector opaqueTokenIntrospector,
+                                                                                  boolean jwtEnabled,
+                                                                                  IntrospectionConfig.IntrospectionProps introspectionProps,
+                                                                                  AsyncAuthProps asyncProps,
+                                                                                  MeterRegistry meterRegistry) {
+        if (!(opaqueTokenIntrospector instanceof AsyncOpaqueTokenIntrospector asyncIntrospector)) {
+            throw new IllegalStateException("app.auth.async needs an AsyncOpaqueTokenIntrospector");
+        }
+        AsyncOpaqueTokenAuthenticationFilter filter = new AsyncOpaqueTokenAuthenticationFilter(
+                asyncIntrospector,
+                jwtEnabled,
+                asyncProps.maxInFlight(),
+                // The introspection times out on its own; this only backs it up
+                introspectionProps.timeout().plusSeconds(1),
+                asyncProps.retryAfter(),
+                new AuthenticationMetrics("opaque", meterRegistry),
+                Counter.builder("auth.async.rejected")
+                        .description("Requests refused because max-in-flight requests were waiting for introspection")
+                        .register(meterRegistry)
+        );
+        Gauge.builder("auth.async.inflight", filter, AsyncOpaqueTokenAuthenticationFilter::getInFlight)
+                .register(meterRegistry);
+        return filter;
+    }
+
+    @ConfigurationProperties(prefix = "app.auth.async")
+    public record AsyncAuthProps(
+            // Suspend requests (servlet async) while their opaque token is introspected
+            @DefaultValue("false") boolean enabled,
+            // Requests suspended at once; beyond this a cache miss gets 503
+            @DefaultValue("1000") int maxInFlight,
+            // Sent as Retry-After on 503 responses
+            @DefaultValue("1s") Duration retryAfter
+    ) {
+    }
+}
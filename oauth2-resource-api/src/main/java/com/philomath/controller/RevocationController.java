@@ -0,0 +1,91 @@
+package com.philomath.controller;
+
+import com.philomath.introspection.RevocationIndex;
+import com.philomath.security.LogoutTokenVerifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes token revocations into the introspection cache.
+ * <p>
+ * {@code POST /internal/revocations} is for internal callers (restricted to
+ * {@code app.revocation.allowed-clients}). {@code POST /backchannel-logout} is the OpenID Connect
+ * Back-Channel Logout receiver to register with Keycloak; it is authenticated by the signature
+ * of the logout token.
+ */
+@RestController
+public class RevocationController {
+
+    private final RevocationIndex revocationIndex;
+    private final ObjectProvider<LogoutTokenVerifier> logoutTokenVerifier;
+
+    public RevocationController(RevocationIndex revocationIndex, ObjectProvider<LogoutTokenVerifier> logoutTokenVerifier) {
+        this.revocationIndex = revocationIndex;
+        this.logoutTokenVerifier = logoutTokenVerifier;
+    }
+
+    @PostMapping(path = "/internal/revocations", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Map<String, Object> revoke(@RequestBody RevocationRequest request) {
+        int evicted = 0;
+        for (String token : nonNull(request.tokens())) {
+            evicted += revocationIndex.revokeToken(token);
+        }
+        for (String jti : nonNull(request.tokenIds())) {
+            evicted += revocationIndex.revokeTokenId(jti);
+        }
+        for (String sub : nonNull(request.subjects())) {
+            evicted += revocationIndex.revokeSubject(sub);
+        }
+        for (String sid : nonNull(request.sessionIds())) {
+            evicted += revocationIndex.revokeSession(sid);
+        }
+        return Map.of("evicted", evicted);
+    }
+
+    @PostMapping(path = "/backchannel-logout", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    public ResponseEntity<Map<String, Object>> backChannelLogout(@RequestParam("logout_token") String logoutToken) {
+        LogoutTokenVerifier verifier = logoutTokenVerifier.getIfAvailable();
+        if (verifier == null) {
+            // Verifying logout tokens needs the JWKS, configured with app.jwt
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        LogoutTokenVerifier.LogoutToken token;
+        try {
+            token = verifier.verify(logoutToken);
+        } catch (JwtException e) {
+            return ResponseEntity.badRequest()
+                    .cacheControl(CacheControl.noStore())
+                    .body(Map.of("error", "invalid_request", "error_description", e.getMessage()));
+        }
+        // With a sid only that session ends, otherwise every session of the subject
+        int evicted = token.sessionId() != null
+                ? revocationIndex.revokeSession(token.sessionId())
+                : revocationIndex.revokeSubject(token.subject());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(Map.of("evicted", evicted));
+    }
+
+    private static List<String> nonNull(List<String> values) {
+        return values != null ? values : List.of();
+    }
+
+    public record RevocationRequest(
+            List<String> tokens,
+            List<String> tokenIds,
+            List<String> subjects,
+            List<String> sessionIds
+    ) {
+    }
+}
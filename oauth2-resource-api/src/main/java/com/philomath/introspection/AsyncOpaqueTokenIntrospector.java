@@ -0,0 +1,18 @@
+package com.philomath.introspection;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@code OpaqueTokenIntrospector}.
+ * <p>
+ * The returned future completes with the principal of an active token, or exceptionally with
+ * {@link BadOpaqueTokenException} for an inactive one and with any other exception when the
+ * token could not be introspected.
+ */
+public interface AsyncOpaqueTokenIntrospector {
+
+    CompletableFuture<OAuth2AuthenticatedPrincipal> introspectAsync(String token);
+}
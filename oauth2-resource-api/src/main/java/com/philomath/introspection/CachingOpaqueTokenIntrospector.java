@@ -0,0 +1,259 @@
+package com.philomath.introspection;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches introspection results in front of an {@link AsyncOpaqueTokenIntrospector} and
+ * coalesces concurrent introspections of the same token.
+ * <p>
+ * Entries are keyed by {@link TokenHashes#sha256} of the token. An active token is cached
+ * until its {@code exp}, but never longer than {@code maxTtl}. The cap bounds how long a token
+ * revoked at Keycloak keeps working here. An inactive token
+ * ({@link BadOpaqueTokenException}) is cached for {@code negativeTtl}, so a client retrying with
+ * a dead token does not reach Keycloak on every attempt.
+ * <p>
+ * The cache holds futures, so an introspection in flight is itself an entry. Concurrent
+ * requests carrying the same token, such as an SPA page load firing dozens of calls, all wait on
+ * the one call to Keycloak. That call is bounded by {@code timeout}. If it fails or times out,
+ * every waiter gets the same failure and Caffeine drops the entry, so the next request tries
+ * again.
+ * <p>
+ * With a non-zero {@code staleGrace}, an active entry is kept for that much longer than its
+ * normal TTL, but never past the token's {@code exp}. A request that finds such a stale entry is
+ * answered from it right away, and one background introspection refreshes it. If Keycloak is
+ * down, the refresh fails and the stale principal keeps being served until the grace period
+ * ends. A token revoked at Keycloak can therefore be accepted for {@code maxTtl + staleGrace},
+ * unless the revocation is pushed to the {@link RevocationIndex}, which evicts it at once.
+ * <p>
+ * With a {@link SharedIntrospectionTier}, this cache is the near level of two. A near miss asks
+ * the shared tier first and only goes to Keycloak when that misses too; every Keycloak answer is
+ * written to both. An entry read from the shared tier keeps the expiry it was written with, so
+ * the two levels together never accept a token for longer than one would. A background
+ * revalidation only takes a shared entry that is still fresh.
+ */
+public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector, AsyncOpaqueTokenIntrospector {
+
+    private final AsyncOpaqueTokenIntrospector delegate;
+    private final AsyncCache<String, CachedIntrospection> cache;
+    private final Duration maxTtl;
+    private final Duration negativeTtl;
+    private final Duration timeout;
+    private final Duration staleGrace;
+    private final RevocationIndex revocations;
+    private final SharedIntrospectionTier shared;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    public CachingOpaqueTokenIntrospector(AsyncOpaqueTokenIntrospector delegate, AsyncCache<String, CachedIntrospection> cache,
+                                          RevocationIndex revocations, Duration maxTtl, Duration negativeTtl,
+                                          Duration timeout, Duration staleGrace) {
+        this(delegate, cache, revocations, null, maxTtl, negativeTtl, timeout, staleGrace);
+    }
+
+    /**
+     * @param shared the shared cache tier, or {@code null} for a local cache only
+     */
+    public CachingOpaqueTokenIntrospector(AsyncOpaqueTokenIntrospector delegate, AsyncCache<String, CachedIntrospection> cache,
+                                          RevocationIndex revocations, SharedIntrospectionTier shared, Duration maxTtl,
+                                          Duration negativeTtl, Duration timeout, Duration staleGrace) {
+        this.delegate = delegate;
+        this.shared = shared;
+        this.cache = cache;
+        this.maxTtl = maxTtl;
+        this.negativeTtl = negativeTtl;
+        this.timeout = timeout;
+        this.staleGrace = staleGrace;
+        this.revocations = revocations;
+    }
+
+    /**
+     * Cache sized by {@code maximumSize} whose entries expire after their own TTL.
+     */
+    public static Caffeine<String, CachedIntrospection> cacheBuilder(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, CachedIntrospection>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedIntrospection value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedIntrospection value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedIntrospection value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                });
+    }
+
+    @Override
+    public CompletableFuture<OAuth2AuthenticatedPrincipal> introspectAsync(String token) {
+        String key = TokenHashes.sha256(token);
+        CompletableFuture<CachedIntrospection> entry = cache.get(key, (k, executor) -> load(k, token, false));
+        if (!staleGrace.isZero() && entry.isDone() && !entry.isCompletedExceptionally()
+                && entry.join().isStale(System.nanoTime())) {
+            revalidate(key, token, entry.join());
+        }
+        return entry.thenApply(cached -> {
+                    if (cached.principal() == null) {
+                        throw new BadOpaqueTokenException("Token is not active");
+                    }
+                    return cached.principal();
+                });
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        return Introspections.await(introspectAsync(token));
+    }
+
+    private void revalidate(String key, String token, CachedIntrospection stale) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        Instant started = Instant.now();
+        load(key, token, true).whenComplete((fresh, failure) -> {
+            if (failure == null) {
+                if (fresh.principal() == null) {
+                    // Replacing the entry skips the removal listener's unindexing
+                    revocations.remove(key, stale.principal());
+                }
+                CompletableFuture<CachedIntrospection> published = CompletableFuture.completedFuture(fresh);
+                cache.put(key, published);
+                // Checked after the put: a revocation that evicted the stale entry before it would
+                // otherwise leave the refreshed principal cached
+                if (fresh.principal() != null && isRevoked(key, fresh.principal(), started)) {
+                    cache.asMap().remove(key, published);
+                }
+            }
+            // On failure the stale entry stays until its grace period ends
+            revalidating.remove(key);
+        });
+    }
+
+    private CompletableFuture<CachedIntrospection> load(String key, String token, boolean freshOnly) {
+        if (shared == null) {
+            return introspect(key, token);
+        }
+        return shared.get(key).thenCompose(snapshot -> {
+            CachedIntrospection cached = snapshot != null ? fromShared(key, snapshot, freshOnly) : null;
+            return cached != null ? CompletableFuture.completedFuture(cached) : introspect(key, token);
+        });
+    }
+
+    private CachedIntrospection fromShared(String key, PrincipalSnapshotCodec.Snapshot snapshot, boolean freshOnly) {
+        Instant now = Instant.now();
+        long ttl = Duration.between(now, snapshot.expiresAt()).toNanos();
+        long fresh = Duration.between(now, snapshot.freshUntil()).toNanos();
+        if (ttl <= 0 || (freshOnly && fresh <= 0)) {
+            return null;
+        }
+        IntrospectedPrincipal principal = snapshot.principal();
+        if (principal == null) {
+            return new CachedIntrospection(null, ttl, System.nanoTime() + ttl);
+        }
+        // Revoked after the replica that wrote it asked Keycloak
+        if (!indexUnlessRevoked(key, principal, snapshot.introspectedAt())) {
+            return null;
+        }
+        return new CachedIntrospection(principal, ttl, System.nanoTime() + Math.max(0, fresh));
+    }
+
+    private void writeShared(String key, CachedIntrospection cached, Instant introspectedAt) {
+        // Only principals the codec can rebuild are shared
+        if (shared == null || (cached.principal() != null && !(cached.principal() instanceof IntrospectedPrincipal))) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant freshUntil = now.plusNanos(Math.max(0, cached.freshUntilNanos() - System.nanoTime()));
+        shared.put(key, new PrincipalSnapshotCodec.Snapshot((IntrospectedPrincipal) cached.principal(),
+                introspectedAt, freshUntil, now.plusNanos(cached.ttlNanos())));
+    }
+
+    private CompletableFuture<CachedIntrospection> introspect(String key, String token) {
+        Instant started = Instant.now();
+        return delegate.introspectAsync(token)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((principal, failure) -> {
+                    if (failure == null) {
+                        // Revoked while Keycloak was answering: the answer is already out of date
+                        if (!indexUnlessRevoked(key, principal, started)) {
+                            return CachedIntrospection.inactive(negativeTtl);
+                        }
+                        CachedIntrospection active = CachedIntrospection.active(principal, maxTtl, staleGrace);
+                        writeShared(key, active, started);
+                        return active;
+                    }
+                    Throwable cause = Introspections.unwrap(failure);
+                    if (cause instanceof BadOpaqueTokenException) {
+                        CachedIntrospection inactive = CachedIntrospection.inactive(negativeTtl);
+                        writeShared(key, inactive, started);
+                        return inactive;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
+    /**
+     * Indexes {@code principal} under {@code key}, unless it was revoked after {@code since}.
+     * <p>
+     * Indexing comes first: a revocation recorded after the check then finds the key in the index
+     * and evicts it, so there is no window in which a revoked principal is cached but not indexed.
+     */
+    private boolean indexUnlessRevoked(String key, OAuth2AuthenticatedPrincipal principal, Instant since) {
+        revocations.add(key, principal);
+        if (isRevoked(key, principal, since)) {
+            revocations.remove(key, principal);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isRevoked(String key, OAuth2AuthenticatedPrincipal principal, Instant since) {
+        return revocations.isKeyRevoked(key, since) || revocations.isRevoked(principal, since);
+    }
+
+    /**
+     * A cached outcome: the principal of an active token, or {@code null} for an inactive one.
+     * The entry is evicted after {@code ttlNanos} and is stale from {@code freshUntilNanos}
+     * ({@link System#nanoTime()} based) on.
+     */
+    public record CachedIntrospection(OAuth2AuthenticatedPrincipal principal, long ttlNanos, long freshUntilNanos) {
+
+        static CachedIntrospection active(OAuth2AuthenticatedPrincipal principal, Duration maxTtl, Duration staleGrace) {
+            long fresh = maxTtl.toNanos();
+            long ttl = maxTtl.plus(staleGrace).toNanos();
+            Object exp = principal.getAttribute("exp");
+            if (exp instanceof Instant expiresAt) {
+                long untilExp = Duration.between(Instant.now(), expiresAt).toNanos();
+                fresh = Math.min(fresh, untilExp);
+                ttl = Math.min(ttl, untilExp);
+            }
+            return new CachedIntrospection(principal, Math.max(0, ttl), System.nanoTime() + Math.max(0, fresh));
+        }
+
+        static CachedIntrospection inactive(Duration negativeTtl) {
+            return new CachedIntrospection(null, negativeTtl.toNanos(), System.nanoTime() + negativeTtl.toNanos());
+        }
+
+        boolean isStale(long now) {
+            return principal != null && now - freshUntilNanos > 0;
+        }
+    }
+}
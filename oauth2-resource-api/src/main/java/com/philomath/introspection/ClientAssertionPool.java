@@ -0,0 +1,136 @@
+package com.philomath.introspection;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a small pool of pre-signed client assertions, so the introspection call does not pay
+ * for an RSA signature on the request path.
+ * <p>
+ * A background thread tops the pool up to {@code size} whenever a request takes an assertion,
+ * and at least every {@code maxAge / 2} to drop assertions that have become too old to send.
+ * Every assertion carries its own {@code jti} and is handed out once. When the pool is empty,
+ * {@link #take()} signs inline, as the service did before, and counts a fallback.
+ * <p>
+ * {@code refillLag} records the time from the pool first dropping below {@code size} to the
+ * producer filling it again. It grows when signing cannot keep up with the introspection rate.
+ */
+@Slf4j
+public class ClientAssertionPool implements AutoCloseable {
+
+    private final Supplier<String> signer;
+    private final int size;
+    private final long maxAgeNanos;
+    private final Counter fallbacks;
+    private final Timer refillLag;
+    private final BlockingQueue<PreSigned> pool;
+    private final Semaphore wakeups = new Semaphore(0);
+    // nanoTime at which the pool went below size, 0 while full
+    private final AtomicLong lowSince = new AtomicLong();
+    private final Thread producer;
+
+    private volatile boolean running = true;
+
+    public ClientAssertionPool(Supplier<String> signer, int size, Duration maxAge, Counter fallbacks, Timer refillLag) {
+        this.signer = signer;
+        this.size = size;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.fallbacks = fallbacks;
+        this.refillLag = refillLag;
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, size));
+        this.producer = new Thread(this::produce, "client-assertion-pool");
+        this.producer.setDaemon(true);
+        if (size > 0) {
+            lowSince.set(System.nanoTime());
+            producer.start();
+        }
+    }
+
+    /**
+     * A fresh, never used client assertion.
+     */
+    public String take() {
+        long now = System.nanoTime();
+        PreSigned assertion = pool.poll();
+        while (assertion != null && isStale(assertion, now)) {
+            assertion = pool.poll();
+        }
+        if (size > 0) {
+            lowSince.compareAndSet(0, now);
+            wakeups.release();
+        }
+        if (assertion != null) {
+            return assertion.jwt();
+        }
+        fallbacks.increment();
+        return signer.get();
+    }
+
+    public int depth() {
+        return pool.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        producer.interrupt();
+    }
+
+    private void produce() {
+        long pollNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(100), maxAgeNanos / 2);
+        while (running) {
+            try {
+                dropStale();
+                while (running && pool.size() < size) {
+                    if (!pool.offer(new PreSigned(signer.get(), System.nanoTime()))) {
+                        break;
+                    }
+                }
+                long since = lowSince.getAndSet(0);
+                if (since != 0) {
+                    refillLag.record(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+                }
+                wakeups.tryAcquire(pollNanos, TimeUnit.NANOSECONDS);
+                wakeups.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Signing failed; requests fall back to inline signing and surface the error there
+                log.warn("Failed to pre-sign client assertion", e);
+                try {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(pollNanos));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dropStale() {
+        long now = System.nanoTime();
+        PreSigned head;
+        while ((head = pool.peek()) != null && isStale(head, now)) {
+            if (pool.remove(head)) {
+                lowSince.compareAndSet(0, now);
+            }
+        }
+    }
+
+    private boolean isStale(PreSigned assertion, long now) {
+        return now - assertion.signedAt() > maxAgeNanos;
+    }
+
+    private record PreSigned(String jwt, long signedAt) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.philomath.introspection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for signing one client assertion, in the pool's producer or inline on a request.
+ */
+@Name("com.philomath.ClientAssertionSign")
+@Label("Client Assertion Signing")
+@Category({"Philomath", "Authentication"})
+@Description("Signing of a private_key_jwt client assertion")
+@StackTrace(false)
+final class ClientAssertionSignEvent extends jdk.jfr.Event {
+
+    @Label("Algorithm")
+    String algorithm;
+}
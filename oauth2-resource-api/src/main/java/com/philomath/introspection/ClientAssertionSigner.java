@@ -0,0 +1,121 @@
+package com.philomath.introspection;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.security.PrivateKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.EdECPrivateKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Signs {@code private_key_jwt} client assertions (RFC 7523) with a key and algorithm resolved
+ * once at startup.
+ * <p>
+ * {@code RS256} and {@code PS256} need an RSA key, {@code ES256} a P-256 EC key and
+ * {@code EdDSA} an Ed25519 key. ECDSA and EdDSA signatures cost a fraction of an RSA one (see
+ * {@code ClientAssertionSigningBenchmark}). The public key must be registered on the Keycloak
+ * client with the same algorithm ("Client authenticator: Signed JWT", "Signature algorithm").
+ */
+public class ClientAssertionSigner {
+
+    private static final Set<JWSAlgorithm> SUPPORTED = Set.of(
+            JWSAlgorithm.RS256, JWSAlgorithm.PS256, JWSAlgorithm.ES256, JWSAlgorithm.EdDSA);
+
+    private final JWSSigner signer;
+    private final JWSHeader header;
+    private final String clientId;
+    private final String audience;
+    private final Duration lifetime;
+
+    private ClientAssertionSigner(JWSSigner signer, JWSHeader header, String clientId, String audience, Duration lifetime) {
+        this.signer = signer;
+        this.header = header;
+        this.clientId = clientId;
+        this.audience = audience;
+        this.lifetime = lifetime;
+    }
+
+    /**
+     * @param kid optional {@code kid} header, left out when blank
+     * @throws IllegalArgumentException when the key does not fit the algorithm
+     */
+    public static ClientAssertionSigner create(JWSAlgorithm algorithm, PrivateKey key, String kid,
+                                               String clientId, String audience, Duration lifetime) {
+        if (!SUPPORTED.contains(algorithm)) {
+            throw new IllegalArgumentException("Unsupported client assertion algorithm " + algorithm
+                    + ", expected one of " + SUPPORTED);
+        }
+        JWSHeader.Builder header = new JWSHeader.Builder(algorithm).type(JOSEObjectType.JWT);
+        // Only set `kid` when you know it matches what Keycloak expects.
+        if (kid != null && !kid.isBlank()) {
+            header.keyID(kid);
+        }
+        return new ClientAssertionSigner(signer(algorithm, key), header.build(), clientId, audience, lifetime);
+    }
+
+    public String sign() {
+        ClientAssertionSignEvent event = new ClientAssertionSignEvent();
+        event.begin();
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(clientId)
+                .subject(clientId)
+                .audience(audience)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(lifetime)))
+                .jwtID(UUID.randomUUID().toString())
+                .build();
+        SignedJWT jwt = new SignedJWT(header, claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to build/sign client assertion JWT", e);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = header.getAlgorithm().getName();
+            event.commit();
+        }
+        return jwt.serialize();
+    }
+
+    public JWSAlgorithm getAlgorithm() {
+        return header.getAlgorithm();
+    }
+
+    private static JWSSigner signer(JWSAlgorithm algorithm, PrivateKey key) {
+        try {
+            if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+                if (key instanceof EdECPrivateKey edKey) {
+                    return new EdDsaSigner(edKey);
+                }
+            } else if (JWSAlgorithm.ES256.equals(algorithm)) {
+                if (key instanceof ECPrivateKey ecKey) {
+                    if (!Curve.P_256.equals(Curve.forECParameterSpec(ecKey.getParams()))) {
+                        throw new IllegalArgumentException("ES256 needs a P-256 key");
+                    }
+                    return new ECDSASigner(ecKey);
+                }
+            } else if (key instanceof RSAPrivateKey rsaKey) {
+                return new RSASSASigner(rsaKey);
+            }
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException("Key does not fit " + algorithm + ": " + e.getMessage(), e);
+        }
+        throw new IllegalArgumentException("A " + key.getAlgorithm() + " key cannot sign " + algorithm);
+    }
+}
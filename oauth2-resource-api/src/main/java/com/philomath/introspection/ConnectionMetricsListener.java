@@ -0,0 +1,56 @@
+package com.philomath.introspection;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+
+/**
+ * Counts connections opened, closed and timed out by the introspection HTTP client.
+ * <p>
+ * With a warm pool, {@code opened} stays flat while requests grow; a rate that tracks the request
+ * rate means connections (and their TLS handshakes) are not being reused.
+ */
+public class ConnectionMetricsListener implements IOSessionListener {
+
+    private final Counter opened;
+    private final Counter closed;
+    private final Counter timedOut;
+
+    public ConnectionMetricsListener(MeterRegistry meterRegistry, String name) {
+        this.opened = Counter.builder(name + ".connections.opened").register(meterRegistry);
+        this.closed = Counter.builder(name + ".connections.closed").register(meterRegistry);
+        this.timedOut = Counter.builder(name + ".connections.timeouts").register(meterRegistry);
+    }
+
+    @Override
+    public void connected(IOSession session) {
+        opened.increment();
+    }
+
+    @Override
+    public void disconnected(IOSession session) {
+        closed.increment();
+    }
+
+    @Override
+    public void timeout(IOSession session) {
+        timedOut.increment();
+    }
+
+    @Override
+    public void startTls(IOSession session) {
+    }
+
+    @Override
+    public void inputReady(IOSession session) {
+    }
+
+    @Override
+    public void outputReady(IOSession session) {
+    }
+
+    @Override
+    public void exception(IOSession session, Exception ex) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.philomath.introspection;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.security.interfaces.EdECPrivateKey;
+import java.util.Set;
+
+/**
+ * Ed25519 {@link JWSSigner} on the JDK's own EdDSA provider.
+ * <p>
+ * Nimbus' {@code Ed25519Signer} needs Google Tink and an {@code OctetKeyPair}; the JDK signs
+ * with the {@link EdECPrivateKey} loaded from the keystore as it is.
+ */
+class EdDsaSigner implements JWSSigner {
+
+    private final EdECPrivateKey privateKey;
+    private final JCAContext jcaContext = new JCAContext();
+
+    EdDsaSigner(EdECPrivateKey privateKey) throws JOSEException {
+        if (!"Ed25519".equalsIgnoreCase(privateKey.getParams().getName())) {
+            throw new JOSEException("EdDSA client assertions need an Ed25519 key, got " + privateKey.getParams().getName());
+        }
+        this.privateKey = privateKey;
+    }
+
+    @Override
+    public Base64URL sign(JWSHeader header, byte[] signingInput) throws JOSEException {
+        if (!JWSAlgorithm.EdDSA.equals(header.getAlgorithm())) {
+            throw new JOSEException("Unsupported algorithm " + header.getAlgorithm());
+        }
+        try {
+            Signature signature = Signature.getInstance("Ed25519");
+            signature.initSign(privateKey);
+            signature.update(signingInput);
+            return Base64URL.encode(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Ed25519 signing failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Set.of(JWSAlgorithm.EdDSA);
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+}
@@ -0,0 +1,83 @@
+package com.philomath.introspection;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Protects the service from a slow or failing introspection endpoint.
+ * <p>
+ * A bulkhead caps the number of introspection calls outstanding at once to
+ * {@code maxConcurrent}; calls above it fail immediately. A {@link CircuitBreaker} counts
+ * failed calls, and calls slower than {@code slowCallDuration}, and stops calling the endpoint
+ * while it is open. An inactive token is a successful call. Either rejection surfaces as an
+ * {@link OAuth2IntrospectionException} without waiting on Keycloak.
+ */
+public class GuardedIntrospector implements OpaqueTokenIntrospector, AsyncOpaqueTokenIntrospector {
+
+    private final AsyncOpaqueTokenIntrospector delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxConcurrent;
+    private final long slowCallNanos;
+    private final Counter circuitOpenRejections;
+    private final Counter bulkheadRejections;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public GuardedIntrospector(AsyncOpaqueTokenIntrospector delegate, CircuitBreaker circuitBreaker, int maxConcurrent,
+                               Duration slowCallDuration, Counter circuitOpenRejections, Counter bulkheadRejections) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.maxConcurrent = maxConcurrent;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.circuitOpenRejections = circuitOpenRejections;
+        this.bulkheadRejections = bulkheadRejections;
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        return Introspections.await(introspectAsync(token));
+    }
+
+    @Override
+    public CompletableFuture<OAuth2AuthenticatedPrincipal> introspectAsync(String token) {
+        if (inFlight.incrementAndGet() > maxConcurrent) {
+            inFlight.decrementAndGet();
+            bulkheadRejections.increment();
+            return CompletableFuture.failedFuture(
+                    new OAuth2IntrospectionException("Too many introspection calls in flight"));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            inFlight.decrementAndGet();
+            circuitOpenRejections.increment();
+            return CompletableFuture.failedFuture(
+                    new OAuth2IntrospectionException("Introspection endpoint unavailable (circuit open)"));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<OAuth2AuthenticatedPrincipal> result;
+        try {
+            result = delegate.introspectAsync(token);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((principal, failure) -> {
+            inFlight.decrementAndGet();
+            boolean failed = failure != null && !(Introspections.unwrap(failure) instanceof BadOpaqueTokenException);
+            if (failed || System.nanoTime() - start > slowCallNanos) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        });
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
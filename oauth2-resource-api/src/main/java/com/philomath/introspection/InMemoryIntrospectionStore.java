@@ -0,0 +1,84 @@
+package com.philomath.introspection;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link SharedIntrospectionStore} inside the JVM, standing in for Redis in tests and local runs.
+ * Several introspectors given the same instance behave like replicas sharing one Redis.
+ */
+public class InMemoryIntrospectionStore implements SharedIntrospectionStore {
+
+    private final Cache<String, Entry> entries;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryIntrospectionStore(long maximumSize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return value.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        return CompletableFuture.completedFuture(entry != null ? entry.value() : null);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] value, Duration ttl) {
+        entries.put(key, new Entry(value.clone(), ttl.toNanos()));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Collection<String> keys) {
+        entries.invalidateAll(keys);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(String message) {
+        for (Consumer<String> listener : listeners) {
+            listener.accept(message);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        entries.invalidateAll();
+        listeners.clear();
+    }
+
+    private record Entry(byte[] value, long ttlNanos) {
+    }
+}
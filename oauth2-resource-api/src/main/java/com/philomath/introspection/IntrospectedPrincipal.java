@@ -0,0 +1,148 @@
+package com.philomath.introspection;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2TokenIntrospectionClaimAccessor;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable principal holding only the introspection claims the service uses.
+ * <p>
+ * Claims are plain fields, so {@link #getAttribute} does not go through a map. The attribute
+ * map that {@link #getAttributes()} exposes (for serialization and generic claim access) is
+ * built on first use and kept. Principals live in the introspection cache, so that happens
+ * at most once per token. {@link #getAttribute} and {@link #getAttributes()} hold the same claims.
+ * <p>
+ * Serialized as {@code name}, {@code authorities} and {@code attributes} only; the claim accessor
+ * getters ({@code getSubject()}, {@code getExpiresAt()}, ...) and {@link #getClaims()} would repeat
+ * the attributes.
+ */
+@JsonAutoDetect(getterVisibility = JsonAutoDetect.Visibility.NONE, isGetterVisibility = JsonAutoDetect.Visibility.NONE)
+public final class IntrospectedPrincipal implements OAuth2AuthenticatedPrincipal, OAuth2TokenIntrospectionClaimAccessor {
+
+    private final String sub;
+    private final String username;
+    private final String clientId;
+    private final String azp;
+    private final String scope;
+    private final String tokenType;
+    private final String iss;
+    private final List<String> aud;
+    private final String jti;
+    private final String sid;
+    private final Instant exp;
+    private final Instant iat;
+    private final Instant nbf;
+    private final List<String> realmRoles;
+    private final List<GrantedAuthority> authorities;
+
+    private volatile Map<String, Object> attributes;
+
+    IntrospectedPrincipal(String sub, String username, String clientId, String azp, String scope, String tokenType,
+                          String iss, List<String> aud, String jti, String sid, Instant exp, Instant iat, Instant nbf,
+                          List<String> realmRoles, List<GrantedAuthority> authorities) {
+        this.sub = sub;
+        this.username = username;
+        this.clientId = clientId;
+        this.azp = azp;
+        this.scope = scope;
+        this.tokenType = tokenType;
+        this.iss = iss;
+        this.aud = aud;
+        this.jti = jti;
+        this.sid = sid;
+        this.exp = exp;
+        this.iat = iat;
+        this.nbf = nbf;
+        this.realmRoles = realmRoles;
+        this.authorities = authorities;
+    }
+
+    @Override
+    @JsonProperty
+    public String getName() {
+        return sub;
+    }
+
+    @Override
+    @JsonProperty
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A getAttribute(String name) {
+        Object value = switch (name) {
+            case "active" -> Boolean.TRUE;
+            case "sub" -> sub;
+            case "username" -> username;
+            case "client_id" -> clientId;
+            case "azp" -> azp;
+            case "scope" -> scope;
+            case "token_type" -> tokenType;
+            case "iss" -> iss;
+            case "aud" -> aud;
+            case "jti" -> jti;
+            case "sid" -> sid;
+            case "exp" -> exp;
+            case "iat" -> iat;
+            case "nbf" -> nbf;
+            case "realm_access" -> getAttributes().get("realm_access");
+            default -> null;
+        };
+        return (A) value;
+    }
+
+    @Override
+    @JsonProperty
+    public Map<String, Object> getAttributes() {
+        Map<String, Object> result = attributes;
+        if (result == null) {
+            result = new LinkedHashMap<>();
+            result.put("active", Boolean.TRUE);
+            putIfPresent(result, "sub", sub);
+            putIfPresent(result, "username", username);
+            putIfPresent(result, "client_id", clientId);
+            putIfPresent(result, "azp", azp);
+            putIfPresent(result, "scope", scope);
+            putIfPresent(result, "token_type", tokenType);
+            putIfPresent(result, "iss", iss);
+            putIfPresent(result, "aud", aud);
+            putIfPresent(result, "jti", jti);
+            putIfPresent(result, "sid", sid);
+            putIfPresent(result, "exp", exp);
+            putIfPresent(result, "iat", iat);
+            putIfPresent(result, "nbf", nbf);
+            if (!realmRoles.isEmpty()) {
+                result.put("realm_access", Map.of("roles", realmRoles));
+            }
+            result = Collections.unmodifiableMap(result);
+            attributes = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return getAttributes();
+    }
+
+    List<String> realmRoles() {
+        return realmRoles;
+    }
+
+    private static void putIfPresent(Map<String, Object> map, String name, Object value) {
+        if (value != null) {
+            map.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.philomath.introspection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one call to the introspection endpoint. Cache hits do not reach it.
+ */
+@Name("com.philomath.Introspection")
+@Label("Token Introspection")
+@Category({"Philomath", "Authentication"})
+@Description("Call to the Keycloak token introspection endpoint")
+@StackTrace(false)
+final class IntrospectionEvent extends jdk.jfr.Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Error")
+    String error;
+}
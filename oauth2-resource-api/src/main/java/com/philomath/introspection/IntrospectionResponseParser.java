@@ -0,0 +1,153 @@
+package com.philomath.introspection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.philomath.security.AuthorityMapper;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a token introspection response (RFC 7662) into an {@link IntrospectedPrincipal}.
+ * <p>
+ * Only the claims the principal keeps are read; everything else, including nested objects
+ * Keycloak adds ({@code resource_access}, {@code address}, ...), is skipped without being
+ * materialized. Timestamps are turned into {@link Instant} while parsing.
+ */
+public class IntrospectionResponseParser {
+
+    private final JsonFactory jsonFactory;
+    private final AuthorityMapper authorityMapper;
+
+    public IntrospectionResponseParser(JsonFactory jsonFactory, AuthorityMapper authorityMapper) {
+        this.jsonFactory = jsonFactory;
+        this.authorityMapper = authorityMapper;
+    }
+
+    /**
+     * @throws BadOpaqueTokenException when the response says the token is not active
+     * @throws IOException             when the response is not a JSON object
+     */
+    public IntrospectedPrincipal parse(byte[] body) throws IOException {
+        boolean active = false;
+        String sub = null;
+        String username = null;
+        String clientId = null;
+        String azp = null;
+        String scope = null;
+        String tokenType = null;
+        String iss = null;
+        List<String> aud = List.of();
+        String jti = null;
+        String sid = null;
+        String sessionState = null;
+        Instant exp = null;
+        Instant iat = null;
+        Instant nbf = null;
+        List<String> realmRoles = List.of();
+
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Introspection response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (name) {
+                    case "active" -> active = token == JsonToken.VALUE_TRUE;
+                    case "sub" -> sub = text(parser, token);
+                    // Keycloak sends `username`, standard-compliant servers may only send `preferred_username`
+                    case "username" -> username = text(parser, token);
+                    case "preferred_username" -> {
+                        String preferred = text(parser, token);
+                        username = username != null ? username : preferred;
+                    }
+                    case "client_id" -> clientId = text(parser, token);
+                    case "azp" -> azp = text(parser, token);
+                    case "scope" -> scope = text(parser, token);
+                    case "token_type" -> tokenType = text(parser, token);
+                    case "iss" -> iss = text(parser, token);
+                    case "aud" -> aud = strings(parser, token);
+                    case "jti" -> jti = text(parser, token);
+                    case "sid" -> sid = text(parser, token);
+                    case "session_state" -> sessionState = text(parser, token);
+                    case "exp" -> exp = epochSeconds(parser, token);
+                    case "iat" -> iat = epochSeconds(parser, token);
+                    case "nbf" -> nbf = epochSeconds(parser, token);
+                    case "realm_access" -> realmRoles = realmRoles(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        if (!active) {
+            throw new BadOpaqueTokenException("Token is not active");
+        }
+        return new IntrospectedPrincipal(sub, username, clientId, azp, scope, tokenType, iss, aud, jti,
+                sid != null ? sid : sessionState, exp, iat, nbf, realmRoles,
+                authorityMapper.authorities(scope, realmRoles));
+    }
+
+    private static String text(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Instant epochSeconds(JsonParser parser, JsonToken token) throws IOException {
+        if (token.isNumeric()) {
+            return Instant.ofEpochSecond(parser.getLongValue());
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * A string or an array of strings, as {@code aud} may be either.
+     */
+    private static List<String> strings(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            return List.of(parser.getText());
+        }
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<String> values = new ArrayList<>(4);
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            String value = text(parser, token);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return List.copyOf(values);
+    }
+
+    private static List<String> realmRoles(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<String> roles = List.of();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (name.equals("roles")) {
+                roles = strings(parser, value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return roles;
+    }
+}
@@ -0,0 +1,54 @@
+package com.philomath.introspection;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bridges {@link AsyncOpaqueTokenIntrospector} futures back to the exceptions Spring Security
+ * expects from a blocking {@code OpaqueTokenIntrospector}.
+ */
+final class Introspections {
+
+    private Introspections() {
+    }
+
+    static OAuth2AuthenticatedPrincipal await(CompletableFuture<OAuth2AuthenticatedPrincipal> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OAuth2IntrospectionException("Interrupted while waiting for token introspection", e);
+        } catch (ExecutionException e) {
+            throw translate(e.getCause());
+        }
+    }
+
+    /**
+     * {@link BadOpaqueTokenException} and {@link OAuth2IntrospectionException} as they are,
+     * anything else wrapped in an {@link OAuth2IntrospectionException}.
+     */
+    static RuntimeException translate(Throwable failure) {
+        Throwable cause = unwrap(failure);
+        if (cause instanceof BadOpaqueTokenException || cause instanceof OAuth2IntrospectionException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof TimeoutException) {
+            return new OAuth2IntrospectionException("Token introspection timed out", cause);
+        }
+        return new OAuth2IntrospectionException("Token introspection failed: " + cause.getMessage(), cause);
+    }
+
+    static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
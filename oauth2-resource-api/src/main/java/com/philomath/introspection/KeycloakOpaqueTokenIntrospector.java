@@ -0,0 +1,105 @@
+package com.philomath.introspection;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.Method;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Calls the Keycloak introspection endpoint with a {@code private_key_jwt} client assertion.
+ * <p>
+ * Requests go through a shared, pooled {@link CloseableHttpAsyncClient}, so connections to
+ * Keycloak (and their TLS sessions) are reused across requests instead of being set up per
+ * call. The parts of the form that never change are encoded once; a call only appends the
+ * token and the client assertion.
+ */
+public class KeycloakOpaqueTokenIntrospector implements OpaqueTokenIntrospector, AsyncOpaqueTokenIntrospector {
+
+    private static final String CLIENT_ASSERTION_TYPE = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
+
+    private final CloseableHttpAsyncClient client;
+    private final URI introspectionUri;
+    private final Supplier<String> clientAssertions;
+    private final IntrospectionResponseParser responseParser;
+    private final String formPrefix;
+
+    /**
+     * @param clientAssertions source of signed, single-use client assertions
+     */
+    public KeycloakOpaqueTokenIntrospector(CloseableHttpAsyncClient client, URI introspectionUri, String clientId,
+                                           Supplier<String> clientAssertions, IntrospectionResponseParser responseParser) {
+        this.client = client;
+        this.introspectionUri = introspectionUri;
+        this.clientAssertions = clientAssertions;
+        this.responseParser = responseParser;
+        this.formPrefix = "client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
+                + "&client_assertion_type=" + URLEncoder.encode(CLIENT_ASSERTION_TYPE, StandardCharsets.UTF_8)
+                + "&client_assertion=";
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        return Introspections.await(introspectAsync(token));
+    }
+
+    @Override
+    public CompletableFuture<OAuth2AuthenticatedPrincipal> introspectAsync(String token) {
+        CompletableFuture<OAuth2AuthenticatedPrincipal> result = new CompletableFuture<>();
+        try {
+            SimpleHttpRequest request = new SimpleHttpRequest(Method.POST, introspectionUri);
+            request.setHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON.getMimeType());
+            // A compact JWS is URL-safe as it is, only the token needs encoding
+            request.setBody(formPrefix + clientAssertions.get() + "&token=" + URLEncoder.encode(token, StandardCharsets.UTF_8),
+                    ContentType.APPLICATION_FORM_URLENCODED);
+
+            client.execute(request, new FutureCallback<>() {
+                @Override
+                public void completed(SimpleHttpResponse response) {
+                    try {
+                        result.complete(toPrincipal(response));
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    result.completeExceptionally(new OAuth2IntrospectionException("Introspection request failed: " + e.getMessage(), e));
+                }
+
+                @Override
+                public void cancelled() {
+                    result.completeExceptionally(new OAuth2IntrospectionException("Introspection request was cancelled"));
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. the client was already shut down, or signing the client assertion failed
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private OAuth2AuthenticatedPrincipal toPrincipal(SimpleHttpResponse response) {
+        if (response.getCode() != 200) {
+            throw new OAuth2IntrospectionException("Introspection endpoint responded with " + response.getCode());
+        }
+        try {
+            return responseParser.parse(response.getBodyBytes());
+        } catch (IOException e) {
+            throw new OAuth2IntrospectionException("Malformed introspection response", e);
+        }
+    }
+}
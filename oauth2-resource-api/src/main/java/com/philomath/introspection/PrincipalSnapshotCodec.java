@@ -0,0 +1,193 @@
+package com.philomath.introspection;
+
+import com.philomath.security.AuthorityMapper;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes introspection outcomes for the shared cache tier and encrypts them with AES-GCM.
+ * <p>
+ * Layout: a version byte, a random 12-byte IV, then the ciphertext and tag. The cache key (the
+ * token hash) is authenticated along with the payload, so an entry copied to another key fails
+ * to decrypt instead of authenticating a different token. Authorities are not stored; they are
+ * mapped again from the scope and realm roles on the way in, through the shared
+ * {@link AuthorityMapper}.
+ */
+public class PrincipalSnapshotCodec {
+
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final AuthorityMapper authorityMapper;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param key a 128, 192 or 256 bit AES key, the same on every replica
+     */
+    public PrincipalSnapshotCodec(byte[] key, AuthorityMapper authorityMapper) {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("AES key must be 16, 24 or 32 bytes, got " + key.length);
+        }
+        this.key = new SecretKeySpec(key, "AES");
+        this.authorityMapper = authorityMapper;
+    }
+
+    public byte[] encode(String cacheKey, Snapshot snapshot) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(aad(cacheKey));
+        byte[] plaintext = serialize(snapshot);
+
+        byte[] result = new byte[1 + IV_LENGTH + cipher.getOutputSize(plaintext.length)];
+        result[0] = VERSION;
+        System.arraycopy(iv, 0, result, 1, IV_LENGTH);
+        cipher.doFinal(plaintext, 0, plaintext.length, result, 1 + IV_LENGTH);
+        return result;
+    }
+
+    /**
+     * @throws GeneralSecurityException when the value was not encrypted for {@code cacheKey} with
+     *                                  this key, or was tampered with
+     */
+    public Snapshot decode(String cacheKey, byte[] value) throws GeneralSecurityException, IOException {
+        if (value.length < 1 + IV_LENGTH || value[0] != VERSION) {
+            throw new IOException("Unknown snapshot format");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, value, 1, IV_LENGTH));
+        cipher.updateAAD(aad(cacheKey));
+        byte[] plaintext = cipher.doFinal(value, 1 + IV_LENGTH, value.length - 1 - IV_LENGTH);
+        return deserialize(plaintext);
+    }
+
+    private static byte[] aad(String cacheKey) {
+        return cacheKey.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] serialize(Snapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(snapshot.introspectedAt().toEpochMilli());
+            out.writeLong(snapshot.freshUntil().toEpochMilli());
+            out.writeLong(snapshot.expiresAt().toEpochMilli());
+            IntrospectedPrincipal principal = snapshot.principal();
+            out.writeBoolean(principal != null);
+            if (principal != null) {
+                writeString(out, principal.getAttribute("sub"));
+                writeString(out, principal.getAttribute("username"));
+                writeString(out, principal.getAttribute("client_id"));
+                writeString(out, principal.getAttribute("azp"));
+                writeString(out, principal.getAttribute("scope"));
+                writeString(out, principal.getAttribute("token_type"));
+                writeString(out, principal.getAttribute("iss"));
+                writeStrings(out, principal.getAttribute("aud"));
+                writeString(out, principal.getAttribute("jti"));
+                writeString(out, principal.getAttribute("sid"));
+                writeInstant(out, principal.getAttribute("exp"));
+                writeInstant(out, principal.getAttribute("iat"));
+                writeInstant(out, principal.getAttribute("nbf"));
+                writeStrings(out, principal.realmRoles());
+            }
+        } catch (IOException e) {
+            // Writing to a byte array does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Snapshot deserialize(byte[] plaintext) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(plaintext))) {
+            Instant introspectedAt = Instant.ofEpochMilli(in.readLong());
+            Instant freshUntil = Instant.ofEpochMilli(in.readLong());
+            Instant expiresAt = Instant.ofEpochMilli(in.readLong());
+            if (!in.readBoolean()) {
+                return new Snapshot(null, introspectedAt, freshUntil, expiresAt);
+            }
+            String sub = readString(in);
+            String username = readString(in);
+            String clientId = readString(in);
+            String azp = readString(in);
+            String scope = readString(in);
+            String tokenType = readString(in);
+            String iss = readString(in);
+            List<String> aud = readStrings(in);
+            String jti = readString(in);
+            String sid = readString(in);
+            Instant exp = readInstant(in);
+            Instant iat = readInstant(in);
+            Instant nbf = readInstant(in);
+            List<String> realmRoles = readStrings(in);
+            IntrospectedPrincipal principal = new IntrospectedPrincipal(sub, username, clientId, azp, scope, tokenType,
+                    iss, aud, jti, sid, exp, iat, nbf, realmRoles, authorityMapper.authorities(scope, realmRoles));
+            return new Snapshot(principal, introspectedAt, freshUntil, expiresAt);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeShort(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readUTF());
+        }
+        return List.copyOf(values);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+        }
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong()) : null;
+    }
+
+    /**
+     * An introspection outcome as stored in the shared tier, with wall-clock times since the
+     * replicas do not share {@link System#nanoTime()}. {@code principal} is {@code null} for an
+     * inactive token.
+     *
+     * @param introspectedAt when Keycloak was asked, checked against revocations by every reader
+     * @param freshUntil     start of the stale-while-revalidate grace period
+     * @param expiresAt      when the entry stops being usable
+     */
+    public record Snapshot(IntrospectedPrincipal principal, Instant introspectedAt, Instant freshUntil,
+                           Instant expiresAt) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.philomath.introspection;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * {@link SharedIntrospectionStore} on Redis (or anything speaking its protocol, such as Valkey
+ * or KeyDB), through one multiplexed Lettuce connection for commands and one for the
+ * revocation channel. Entries expire in Redis with their own TTL ({@code SET ... PX}).
+ * Lettuce reconnects and resubscribes on its own after a connection loss.
+ */
+public class RedisIntrospectionStore implements SharedIntrospectionStore {
+
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, byte[]> connection;
+    private final StatefulRedisPubSubConnection<String, String> pubSub;
+    private final String keyPrefix;
+    private final String channel;
+
+    public RedisIntrospectionStore(RedisClient client, String keyPrefix, String channel) {
+        this.client = client;
+        this.connection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        this.pubSub = client.connectPubSub();
+        this.keyPrefix = keyPrefix;
+        this.channel = channel;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> get(String key) {
+        return connection.async().get(keyPrefix + key).toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, byte[] value, Duration ttl) {
+        if (ttl.toMillis() <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return connection.async().set(keyPrefix + key, value, SetArgs.Builder.px(ttl.toMillis()))
+                .toCompletableFuture()
+                .thenApply(ok -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String[] prefixed = keys.stream().map(key -> keyPrefix + key).toArray(String[]::new);
+        return connection.async().del(prefixed).toCompletableFuture().thenApply(deleted -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(String message) {
+        return connection.async().publish(channel, message.getBytes(StandardCharsets.UTF_8))
+                .toCompletableFuture()
+                .thenApply(receivers -> null);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        pubSub.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String messageChannel, String message) {
+                if (channel.equals(messageChannel)) {
+                    listener.accept(message);
+                }
+            }
+        });
+        pubSub.sync().subscribe(channel);
+    }
+
+    @Override
+    public void close() {
+        pubSub.close();
+        connection.close();
+        client.shutdown();
+    }
+}
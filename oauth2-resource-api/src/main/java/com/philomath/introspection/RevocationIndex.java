@@ -0,0 +1,217 @@
+package com.philomath.introspection;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secondary index from {@code sub}, {@code sid} and {@code jti} to introspection cache keys,
+ * so a revocation pushed to the service evicts every cached token it covers.
+ * <p>
+ * Entries are added when an active token is cached and removed by the cache's removal listener
+ * ({@link #onRemoval}). Revocations, including those of single tokens by cache key, are also
+ * remembered for {@code retention}:
+ * <ul>
+ *     <li>an introspection that was already in flight when the revocation arrived is not cached
+ *     ({@link #isRevoked} against its start time)</li>
+ *     <li>JWTs, which are verified locally and never cached, are rejected when issued before
+ *     a revocation of their subject, session or id</li>
+ * </ul>
+ * {@code retention} should cover the lifetime of access tokens.
+ * <p>
+ * With a {@link SharedIntrospectionTier} attached, a revocation also deletes the shared entries
+ * of the keys it evicts and is broadcast to the other replicas, which apply it to their own
+ * index and near cache. A shared entry that no replica has indexed any more is rejected on read
+ * by {@link #isRevoked} for as long as the revocation is retained.
+ */
+public class RevocationIndex {
+
+    private final Map<String, Set<String>> bySubject = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> bySession = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byTokenId = new ConcurrentHashMap<>();
+    // "sub:<sub>", "sid:<sid>", "jti:<jti>", "key:<token hash>" -> time of the revocation
+    private final Cache<String, Instant> recentRevocations;
+
+    private volatile AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> cache;
+    private volatile SharedIntrospectionTier shared;
+
+    public RevocationIndex(Duration retention) {
+        this.recentRevocations = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * The cache whose entries revocations evict. Without one, revocations are only remembered.
+     */
+    public void attach(AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Shares revocations with the other replicas through {@code tier}, and applies theirs here.
+     */
+    public void attach(SharedIntrospectionTier tier) {
+        this.shared = tier;
+        tier.onRevocation((kind, value) -> {
+            switch (kind) {
+                case "key:" -> revokeKey(value, false);
+                case "sub:" -> revoke(kind, value, bySubject, false);
+                case "sid:" -> revoke(kind, value, bySession, false);
+                case "jti:" -> revoke(kind, value, byTokenId, false);
+                default -> {
+                    // From a newer version; nothing to apply
+                }
+            }
+        });
+    }
+
+    public int revokeToken(String token) {
+        return revokeKey(TokenHashes.sha256(token), true);
+    }
+
+    public int revokeSubject(String sub) {
+        return revoke("sub:", sub, bySubject, true);
+    }
+
+    public int revokeSession(String sid) {
+        return revoke("sid:", sid, bySession, true);
+    }
+
+    public int revokeTokenId(String jti) {
+        return revoke("jti:", jti, byTokenId, true);
+    }
+
+    /**
+     * Whether a token with these claims, issued (or introspected) at {@code since}, has been
+     * revoked after that.
+     */
+    public boolean isRevoked(String sub, String sid, String jti, Instant since) {
+        return revokedAfter("sub:", sub, since) || revokedAfter("sid:", sid, since) || revokedAfter("jti:", jti, since);
+    }
+
+    boolean isRevoked(OAuth2AuthenticatedPrincipal principal, Instant since) {
+        return isRevoked(principal.getAttribute("sub"), sessionId(principal), principal.getAttribute("jti"), since);
+    }
+
+    /**
+     * Whether the token cached under {@code key} was revoked by itself ({@link #revokeToken})
+     * after {@code since}.
+     */
+    boolean isKeyRevoked(String key, Instant since) {
+        return revokedAfter("key:", key, since);
+    }
+
+    void add(String key, OAuth2AuthenticatedPrincipal principal) {
+        add(bySubject, principal.getAttribute("sub"), key);
+        add(bySession, sessionId(principal), key);
+        add(byTokenId, principal.getAttribute("jti"), key);
+    }
+
+    /**
+     * Removal listener for the introspection cache.
+     */
+    public void onRemoval(String key, CachingOpaqueTokenIntrospector.CachedIntrospection value, RemovalCause cause) {
+        // A replaced entry is still cached under the same key, and re-indexed by its new value
+        if (key == null || value == null || value.principal() == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        remove(key, value.principal());
+    }
+
+    void remove(String key, OAuth2AuthenticatedPrincipal principal) {
+        remove(bySubject, principal.getAttribute("sub"), key);
+        remove(bySession, sessionId(principal), key);
+        remove(byTokenId, principal.getAttribute("jti"), key);
+    }
+
+    private int revokeKey(String key, boolean publish) {
+        // Remembered so an introspection or shared write already in flight does not cache it again
+        recentRevocations.put("key:" + key, Instant.now());
+        SharedIntrospectionTier tier = shared;
+        if (tier != null) {
+            tier.delete(List.of(key));
+            if (publish) {
+                tier.publishRevocation("key:", key);
+            }
+        }
+        AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> current = cache;
+        if (current == null || current.getIfPresent(key) == null) {
+            return 0;
+        }
+        current.synchronous().invalidate(key);
+        return 1;
+    }
+
+    private int revoke(String kind, String value, Map<String, Set<String>> index, boolean publish) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        recentRevocations.put(kind + value, Instant.now());
+        SharedIntrospectionTier tier = shared;
+        if (tier != null && publish) {
+            tier.publishRevocation(kind, value);
+        }
+        Set<String> keys = index.remove(value);
+        AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> current = cache;
+        if (keys == null) {
+            return 0;
+        }
+        Collection<String> snapshot = new HashSet<>(keys);
+        if (tier != null) {
+            tier.delete(snapshot);
+        }
+        if (current == null) {
+            return 0;
+        }
+        current.synchronous().invalidateAll(snapshot);
+        return snapshot.size();
+    }
+
+    private boolean revokedAfter(String kind, String value, Instant since) {
+        if (value == null) {
+            return false;
+        }
+        Instant revokedAt = recentRevocations.getIfPresent(kind + value);
+        return revokedAt != null && (since == null || !since.isAfter(revokedAt));
+    }
+
+    private static String sessionId(OAuth2AuthenticatedPrincipal principal) {
+        // Keycloak introspection reports the session as `sid`, older versions as `session_state`
+        String sid = principal.getAttribute("sid");
+        return sid != null ? sid : principal.getAttribute("session_state");
+    }
+
+    private static void add(Map<String, Set<String>> index, String value, String key) {
+        if (value == null) {
+            return;
+        }
+        index.compute(value, (v, keys) -> {
+            Set<String> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            result.add(key);
+            return result;
+        });
+    }
+
+    private static void remove(Map<String, Set<String>> index, String value, String key) {
+        if (value == null) {
+            return;
+        }
+        index.computeIfPresent(value, (v, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
@@ -0,0 +1,35 @@
+package com.philomath.introspection;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Key-value store shared by all replicas, behind the in-process introspection cache.
+ * <p>
+ * Values are opaque (encrypted) bytes under token-hash keys. The store also carries a broadcast
+ * channel, over which replicas tell each other about revocations. Implementations:
+ * {@link RedisIntrospectionStore} and the single-JVM {@link InMemoryIntrospectionStore}.
+ */
+public interface SharedIntrospectionStore extends AutoCloseable {
+
+    /**
+     * Completes with {@code null} when the key is absent.
+     */
+    CompletableFuture<byte[]> get(String key);
+
+    CompletableFuture<Void> put(String key, byte[] value, Duration ttl);
+
+    CompletableFuture<Void> delete(Collection<String> keys);
+
+    /**
+     * Sends {@code message} to every subscriber, including this one.
+     */
+    CompletableFuture<Void> publish(String message);
+
+    void subscribe(Consumer<String> listener);
+
+    @Override
+    void close();
+}
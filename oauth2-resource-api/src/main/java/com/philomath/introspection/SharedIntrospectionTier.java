@@ -0,0 +1,142 @@
+package com.philomath.introspection;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * The shared level of the introspection cache: encrypted {@link PrincipalSnapshotCodec.Snapshot}s
+ * in a {@link SharedIntrospectionStore}, keyed by token hash.
+ * <p>
+ * The tier never fails a request. A lookup that errors, cannot be decrypted or takes longer than
+ * {@code timeout} is a miss, and the request goes on to Keycloak. Writes, deletes and revocation
+ * broadcasts are fire-and-forget.
+ * <p>
+ * Revocations are broadcast as {@code <node> <kind>:<value>} ({@code sub:}, {@code sid:},
+ * {@code jti:} or {@code key:} with a token hash, never a token). A replica ignores its own
+ * broadcasts.
+ */
+@Slf4j
+public class SharedIntrospectionTier {
+
+    private final SharedIntrospectionStore store;
+    private final PrincipalSnapshotCodec codec;
+    private final Duration timeout;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+    private final Counter writeErrors;
+
+    public SharedIntrospectionTier(SharedIntrospectionStore store, PrincipalSnapshotCodec codec, Duration timeout,
+                                   Counter hits, Counter misses, Counter errors, Counter writeErrors) {
+        this.store = store;
+        this.codec = codec;
+        this.timeout = timeout;
+        this.hits = hits;
+        this.misses = misses;
+        this.errors = errors;
+        this.writeErrors = writeErrors;
+    }
+
+    /**
+     * Completes with the stored snapshot, or {@code null}; never exceptionally.
+     */
+    public CompletableFuture<PrincipalSnapshotCodec.Snapshot> get(String key) {
+        CompletableFuture<byte[]> value;
+        try {
+            value = store.get(key);
+        } catch (RuntimeException e) {
+            value = CompletableFuture.failedFuture(e);
+        }
+        return value
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((bytes, failure) -> {
+                    if (failure != null) {
+                        errors.increment();
+                        log.debug("Shared introspection lookup failed: {}", failure.toString());
+                        return null;
+                    }
+                    if (bytes == null) {
+                        misses.increment();
+                        return null;
+                    }
+                    try {
+                        PrincipalSnapshotCodec.Snapshot snapshot = codec.decode(key, bytes);
+                        hits.increment();
+                        return snapshot;
+                    } catch (Exception e) {
+                        // Written with another key (rotation) or by an incompatible version
+                        errors.increment();
+                        log.debug("Unreadable shared introspection entry: {}", e.toString());
+                        return null;
+                    }
+                });
+    }
+
+    public void put(String key, PrincipalSnapshotCodec.Snapshot snapshot) {
+        Duration ttl = Duration.between(Instant.now(), snapshot.expiresAt());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        byte[] value;
+        try {
+            value = codec.encode(key, snapshot);
+        } catch (GeneralSecurityException e) {
+            writeErrors.increment();
+            return;
+        }
+        track(() -> store.put(key, value, ttl));
+    }
+
+    public void delete(Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            track(() -> store.delete(keys));
+        }
+    }
+
+    /**
+     * Tells the other replicas about a revocation, e.g. {@code ("sub:", "<sub>")}.
+     */
+    public void publishRevocation(String kind, String value) {
+        track(() -> store.publish(nodeId + " " + kind + value));
+    }
+
+    /**
+     * Calls {@code listener} with the kind and value of every revocation another replica publishes.
+     */
+    public void onRevocation(BiConsumer<String, String> listener) {
+        store.subscribe(message -> {
+            int space = message.indexOf(' ');
+            int colon = message.indexOf(':', space + 1);
+            if (space < 0 || colon < 0 || message.startsWith(nodeId + " ")) {
+                return;
+            }
+            listener.accept(message.substring(space + 1, colon + 1), message.substring(colon + 1));
+        });
+    }
+
+    private void track(Supplier<CompletableFuture<Void>> write) {
+        CompletableFuture<Void> result;
+        try {
+            result = write.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                writeErrors.increment();
+                log.debug("Shared introspection write failed: {}", failure.toString());
+            }
+        });
+    }
+}
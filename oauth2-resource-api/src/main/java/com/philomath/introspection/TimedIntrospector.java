@@ -0,0 +1,78 @@
+package com.philomath.introspection;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times calls to the introspection endpoint as {@code introspection.duration{outcome}}, a
+ * percentile histogram whose count per outcome ({@code active}, {@code inactive}, {@code error})
+ * is also the outcome count. Each call is an {@link IntrospectionEvent} in JFR as well.
+ * <p>
+ * It sits directly on the HTTP introspector, so cache hits and calls rejected by the bulkhead or
+ * circuit breaker are not included.
+ */
+public class TimedIntrospector implements OpaqueTokenIntrospector, AsyncOpaqueTokenIntrospector {
+
+    private final AsyncOpaqueTokenIntrospector delegate;
+    private final Timer active;
+    private final Timer inactive;
+    private final Timer error;
+
+    public TimedIntrospector(AsyncOpaqueTokenIntrospector delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.active = timer(meterRegistry, "active");
+        this.inactive = timer(meterRegistry, "inactive");
+        this.error = timer(meterRegistry, "error");
+    }
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        return Introspections.await(introspectAsync(token));
+    }
+
+    @Override
+    public CompletableFuture<OAuth2AuthenticatedPrincipal> introspectAsync(String token) {
+        IntrospectionEvent event = new IntrospectionEvent();
+        event.begin();
+        long start = System.nanoTime();
+        CompletableFuture<OAuth2AuthenticatedPrincipal> result;
+        try {
+            result = delegate.introspectAsync(token);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((principal, failure) -> {
+            Throwable cause = failure != null ? Introspections.unwrap(failure) : null;
+            String outcome = cause == null ? "active" : cause instanceof BadOpaqueTokenException ? "inactive" : "error";
+            Timer timer = switch (outcome) {
+                case "active" -> active;
+                case "inactive" -> inactive;
+                default -> error;
+            };
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.end();
+            if (event.shouldCommit()) {
+                event.outcome = outcome;
+                event.error = timer == error ? cause.getClass().getSimpleName() : null;
+                event.commit();
+            }
+        });
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("introspection.duration")
+                .description("Round trip to the introspection endpoint")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(Duration.ofMinutes(2))
+                .register(meterRegistry);
+    }
+}
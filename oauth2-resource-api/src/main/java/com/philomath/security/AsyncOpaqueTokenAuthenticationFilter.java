@@ -0,0 +1,266 @@
+package com.philomath.security;
+
+import com.philomath.introspection.AsyncOpaqueTokenIntrospector;
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenAuthenticationEntryPoint;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Authenticates opaque bearer tokens without holding a servlet thread during introspection.
+ * <p>
+ * Runs before {@code BearerTokenAuthenticationFilter}. When the introspection is not already
+ * complete (a cache miss), the request is suspended with {@link HttpServletRequest#startAsync}
+ * and its thread goes back to the pool. When the introspection finishes, the request is
+ * dispatched again ({@link DispatcherType#ASYNC}). This filter then sets the security context,
+ * or answers 401, and the rest of the chain runs as for a synchronous authentication. A cache
+ * hit is handled inline, without suspending.
+ * <p>
+ * At most {@code maxInFlight} requests are suspended at once. Beyond that, a cache miss is
+ * answered with 503 and {@code Retry-After}. The introspection it started still completes and is
+ * cached, so a retry is likely a hit. Calls to Keycloak itself are bounded separately by the
+ * introspection bulkhead.
+ * <p>
+ * JWS-shaped tokens, when JWT validation is on, and requests without a bearer token are left to
+ * {@code BearerTokenAuthenticationFilter}. That filter has to be given {@link #bearerTokenResolver()},
+ * so that it does not authenticate a request again that this filter already authenticated.
+ */
+public class AsyncOpaqueTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String OUTCOME = AsyncOpaqueTokenAuthenticationFilter.class.getName() + ".OUTCOME";
+    private static final String AUTHENTICATED = AsyncOpaqueTokenAuthenticationFilter.class.getName() + ".AUTHENTICATED";
+
+    private final BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+    private final AuthenticationEntryPoint entryPoint = new BearerTokenAuthenticationEntryPoint();
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+    private final SecurityContextHolderStrategy contextHolder = SecurityContextHolder.getContextHolderStrategy();
+    private final SecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
+    private final AsyncOpaqueTokenIntrospector introspector;
+    private final boolean jwtEnabled;
+    private final int maxInFlight;
+    private final long timeoutMillis;
+    private final AuthenticationMetrics metrics;
+    private final Counter rejections;
+    private final String retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param jwtEnabled whether JWS-shaped tokens are verified locally instead of introspected
+     * @param timeout    backstop for a suspended request; the introspection has its own timeout
+     */
+    public AsyncOpaqueTokenAuthenticationFilter(AsyncOpaqueTokenIntrospector introspector, boolean jwtEnabled,
+                                                int maxInFlight, Duration timeout, Duration retryAfter,
+                                                AuthenticationMetrics metrics, Counter rejections) {
+        this.introspector = introspector;
+        this.jwtEnabled = jwtEnabled;
+        this.maxInFlight = maxInFlight;
+        this.timeoutMillis = timeout.toMillis();
+        this.metrics = metrics;
+        this.rejections = rejections;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // The ASYNC dispatch is where a suspended request resumes
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getAttribute(OUTCOME) instanceof Outcome outcome) {
+            request.removeAttribute(OUTCOME);
+            resume(outcome, request, response, filterChain);
+            return;
+        }
+        String token = opaqueToken(request);
+        if (token == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticationMetrics.Sample sample = metrics.start();
+        CompletableFuture<OAuth2AuthenticatedPrincipal> principal;
+        try {
+            principal = introspector.introspectAsync(token);
+        } catch (RuntimeException e) {
+            principal = CompletableFuture.failedFuture(e);
+        }
+        if (principal.isDone()) {
+            resume(outcome(principal, token, request, sample), request, response, filterChain);
+            return;
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            metrics.failure(sample);
+            rejections.increment();
+            reject(response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync(request, response);
+        async.setTimeout(timeoutMillis);
+        AtomicBoolean dispatched = new AtomicBoolean();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                if (dispatched.compareAndSet(false, true)) {
+                    metrics.failure(sample);
+                    request.setAttribute(OUTCOME, new Outcome(null,
+                            new AuthenticationServiceException("Token introspection did not complete in time")));
+                    async.dispatch();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        CompletableFuture<OAuth2AuthenticatedPrincipal> pending = principal;
+        pending.whenComplete((result, failure) -> {
+            inFlight.decrementAndGet();
+            if (dispatched.compareAndSet(false, true)) {
+                request.setAttribute(OUTCOME, outcome(pending, token, request, sample));
+                async.dispatch();
+            }
+        });
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Bearer token resolver for {@code BearerTokenAuthenticationFilter}: resolves no token for a
+     * request this filter has authenticated, so its token is not authenticated a second time.
+     */
+    public BearerTokenResolver bearerTokenResolver() {
+        return request -> request.getAttribute(AUTHENTICATED) != null ? null : bearerTokenResolver.resolve(request);
+    }
+
+    private String opaqueToken(HttpServletRequest request) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !request.isAsyncSupported()) {
+            return null;
+        }
+        String token;
+        try {
+            token = bearerTokenResolver.resolve(request);
+        } catch (OAuth2AuthenticationException e) {
+            // Malformed header: BearerTokenAuthenticationFilter answers it
+            return null;
+        }
+        return token == null || (jwtEnabled && HybridAuthenticationManagerResolver.isJws(token)) ? null : token;
+    }
+
+    private void resume(Outcome outcome, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (outcome.failure() != null) {
+            contextHolder.clearContext();
+            // Like BearerTokenAuthenticationFilter: an unreachable Keycloak is a server error, not a 401
+            if (outcome.failure() instanceof AuthenticationServiceException serviceFailure) {
+                throw serviceFailure;
+            }
+            entryPoint.commence(request, response, outcome.failure());
+            return;
+        }
+        SecurityContext context = contextHolder.createEmptyContext();
+        context.setAuthentication(outcome.authentication());
+        contextHolder.setContext(context);
+        contextRepository.saveContext(context, request, response);
+        request.setAttribute(AUTHENTICATED, Boolean.TRUE);
+        filterChain.doFilter(request, response);
+    }
+
+    private Outcome outcome(CompletableFuture<OAuth2AuthenticatedPrincipal> principal, String token,
+                            HttpServletRequest request, AuthenticationMetrics.Sample sample) {
+        try {
+            BearerTokenAuthentication authentication = authentication(principal.join(), token);
+            authentication.setDetails(detailsSource.buildDetails(request));
+            metrics.success(sample, authentication);
+            return new Outcome(authentication, null);
+        } catch (RuntimeException e) {
+            metrics.failure(sample);
+            return new Outcome(null, translate(e));
+        }
+    }
+
+    /**
+     * The authentication {@code OpaqueTokenAuthenticationProvider} would build.
+     */
+    private static BearerTokenAuthentication authentication(OAuth2AuthenticatedPrincipal principal, String token) {
+        Instant iat = principal.getAttribute("iat") instanceof Instant issuedAt ? issuedAt : null;
+        Instant exp = principal.getAttribute("exp") instanceof Instant expiresAt ? expiresAt : null;
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, token, iat, exp);
+        return new BearerTokenAuthentication(principal, accessToken, principal.getAuthorities());
+    }
+
+    private static AuthenticationException translate(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof BadOpaqueTokenException) {
+            return new InvalidBearerTokenException(cause.getMessage(), cause);
+        }
+        if (cause instanceof AuthenticationException authenticationException) {
+            return authenticationException;
+        }
+        return new AuthenticationServiceException(cause.getMessage(), cause);
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        byte[] body = "{\"error\":\"AuthenticationCapacityExceeded\",\"message\":\"Too many requests waiting for token introspection, retry later\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private record Outcome(Authentication authentication, AuthenticationException failure) {
+    }
+}
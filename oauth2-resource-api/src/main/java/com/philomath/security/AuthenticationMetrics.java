@@ -0,0 +1,113 @@
+package com.philomath.security;
+
+import com.philomath.introspection.TokenHashes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters and JFR events for bearer-token authentication of one token type.
+ * <ul>
+ *     <li>{@code auth.duration{type, outcome=success|failure}}: a percentile histogram of the time
+ *     spent authenticating, including JWT verification or introspection (cached or not)</li>
+ *     <li>{@code auth.tokens{type, client}}: authenticated tokens per OAuth client. The client is
+ *     the first 12 characters of the SHA-256 of its id; after {@value #MAX_CLIENTS} distinct
+ *     clients, further ones are counted as {@code other}</li>
+ * </ul>
+ * Each authentication is also a {@link TokenAuthenticationEvent} in JFR. A {@link Sample} may be
+ * started and finished on different threads.
+ */
+public class AuthenticationMetrics {
+
+    private static final int MAX_CLIENTS = 1_000;
+
+    private final String tokenType;
+    private final MeterRegistry meterRegistry;
+    private final Timer success;
+    private final Timer failure;
+    private final Map<String, Counter> tokensByClient = new ConcurrentHashMap<>();
+
+    /**
+     * @param tokenType {@code jwt} or {@code opaque}
+     */
+    public AuthenticationMetrics(String tokenType, MeterRegistry meterRegistry) {
+        this.tokenType = tokenType;
+        this.meterRegistry = meterRegistry;
+        this.success = timer("success");
+        this.failure = timer("failure");
+    }
+
+    public Sample start() {
+        TokenAuthenticationEvent event = new TokenAuthenticationEvent();
+        event.begin();
+        return new Sample(event, System.nanoTime());
+    }
+
+    public void success(Sample sample, Authentication result) {
+        success.record(System.nanoTime() - sample.startNanos, TimeUnit.NANOSECONDS);
+        String client = clientTag(result != null ? result.getPrincipal() : null);
+        tokens(client).increment();
+        commit(sample.event, "success", client);
+    }
+
+    public void failure(Sample sample) {
+        failure.record(System.nanoTime() - sample.startNanos, TimeUnit.NANOSECONDS);
+        commit(sample.event, "failure", null);
+    }
+
+    private void commit(TokenAuthenticationEvent event, String outcome, String client) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tokenType = tokenType;
+            event.outcome = outcome;
+            event.client = client;
+            event.commit();
+        }
+    }
+
+    private Counter tokens(String client) {
+        Counter counter = tokensByClient.get(client);
+        if (counter != null) {
+            return counter;
+        }
+        String tag = tokensByClient.size() < MAX_CLIENTS ? client : "other";
+        return tokensByClient.computeIfAbsent(tag, t -> Counter.builder("auth.tokens")
+                .description("Authenticated bearer tokens per client (hashed client id)")
+                .tag("type", tokenType)
+                .tag("client", t)
+                .register(meterRegistry));
+    }
+
+    private static String clientTag(Object principal) {
+        String clientId = ClientIdAuthorizationManager.clientId(principal);
+        return clientId != null ? TokenHashes.sha256(clientId).substring(0, 12) : "none";
+    }
+
+    private Timer timer(String outcome) {
+        return Timer.builder("auth.duration")
+                .description("Time to authenticate a bearer token")
+                .tag("type", tokenType)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .distributionStatisticExpiry(Duration.ofMinutes(2))
+                .register(meterRegistry);
+    }
+
+    public static final class Sample {
+
+        private final TokenAuthenticationEvent event;
+        private final long startNanos;
+
+        private Sample(TokenAuthenticationEvent event, long startNanos) {
+            this.event = event;
+            this.startNanos = startNanos;
+        }
+    }
+}
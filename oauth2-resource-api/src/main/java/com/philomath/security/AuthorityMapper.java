@@ -0,0 +1,81 @@
+package com.philomath.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps OAuth scopes and Keycloak realm roles to {@link GrantedAuthority} lists.
+ * <p>
+ * Clients use a handful of distinct scope strings and role sets, so each distinct combination is
+ * mapped once. Every caller with the same {@code scope} and roles then shares one immutable list
+ * of shared authority instances ({@code SCOPE_<scope>}, {@code ROLE_<role>}). Once
+ * {@value #MAX_CACHED} combinations have been seen, further ones are mapped on every call.
+ */
+public class AuthorityMapper {
+
+    private static final int MAX_CACHED = 10_000;
+
+    private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+    private final Map<Key, List<GrantedAuthority>> byKey = new ConcurrentHashMap<>();
+
+    public List<GrantedAuthority> authorities(String scope, Collection<String> realmRoles) {
+        Key key = new Key(scope != null ? scope : "", realmRoles != null ? List.copyOf(realmRoles) : List.of());
+        if (key.scope().isEmpty() && key.roles().isEmpty()) {
+            return List.of();
+        }
+        List<GrantedAuthority> cached = byKey.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<GrantedAuthority> mapped = map(key);
+        if (byKey.size() < MAX_CACHED) {
+            List<GrantedAuthority> raced = byKey.putIfAbsent(key, mapped);
+            return raced != null ? raced : mapped;
+        }
+        return mapped;
+    }
+
+    /**
+     * The {@code roles} of a Keycloak {@code realm_access} claim.
+     */
+    public static List<String> realmRoles(Map<String, Object> realmAccess) {
+        if (realmAccess != null && realmAccess.get("roles") instanceof Collection<?> roles) {
+            List<String> result = new ArrayList<>(roles.size());
+            for (Object role : roles) {
+                result.add(String.valueOf(role));
+            }
+            return result;
+        }
+        return List.of();
+    }
+
+    private List<GrantedAuthority> map(Key key) {
+        List<GrantedAuthority> result = new ArrayList<>();
+        for (String scope : key.scope().split(" ")) {
+            if (!scope.isEmpty()) {
+                result.add(intern("SCOPE_" + scope));
+            }
+        }
+        for (String role : key.roles()) {
+            result.add(intern("ROLE_" + role));
+        }
+        return List.copyOf(result);
+    }
+
+    private GrantedAuthority intern(String authority) {
+        if (authorities.size() >= MAX_CACHED) {
+            GrantedAuthority existing = authorities.get(authority);
+            return existing != null ? existing : new SimpleGrantedAuthority(authority);
+        }
+        return authorities.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
+    private record Key(String scope, List<String> roles) {
+    }
+}
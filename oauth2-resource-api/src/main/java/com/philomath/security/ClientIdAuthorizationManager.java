@@ -0,0 +1,48 @@
+package com.philomath.security;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.core.ClaimAccessor;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Grants access to bearer tokens issued to one of the given OAuth clients.
+ * <p>
+ * The client is read from {@code client_id} (introspection) or {@code azp} (Keycloak JWTs).
+ */
+public class ClientIdAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private final Set<String> allowedClients;
+
+    public ClientIdAuthorizationManager(Collection<String> allowedClients) {
+        this.allowedClients = Set.copyOf(allowedClients);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated()) {
+            return new AuthorizationDecision(false);
+        }
+        String clientId = clientId(auth.getPrincipal());
+        return new AuthorizationDecision(clientId != null && allowedClients.contains(clientId));
+    }
+
+    static String clientId(Object principal) {
+        if (principal instanceof OAuth2AuthenticatedPrincipal attributes) {
+            String clientId = attributes.getAttribute("client_id");
+            return clientId != null ? clientId : attributes.getAttribute("azp");
+        }
+        if (principal instanceof ClaimAccessor claims) {
+            String clientId = claims.getClaimAsString("client_id");
+            return clientId != null ? clientId : claims.getClaimAsString("azp");
+        }
+        return null;
+    }
+}
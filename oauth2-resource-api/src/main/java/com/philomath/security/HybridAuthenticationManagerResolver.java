@@ -0,0 +1,45 @@
+package com.philomath.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationManagerResolver;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+
+/**
+ * Sends bearer tokens that are shaped like a JWS to local JWT validation, and everything else
+ * to opaque-token introspection.
+ * <p>
+ * The check is purely syntactic (three dot-separated parts, the header starting as a JSON
+ * object). A token that merely looks like a JWT but is not signed by a key in the JWKS is
+ * rejected by the JWT path; it is not retried against introspection.
+ */
+public class HybridAuthenticationManagerResolver implements AuthenticationManagerResolver<HttpServletRequest> {
+
+    // Base64url of `{"`, the start of every JOSE header
+    private static final String JOSE_HEADER_PREFIX = "eyJ";
+
+    private final BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+    private final AuthenticationManager jwt;
+    private final AuthenticationManager opaqueToken;
+
+    public HybridAuthenticationManagerResolver(AuthenticationManager jwt, AuthenticationManager opaqueToken) {
+        this.jwt = jwt;
+        this.opaqueToken = opaqueToken;
+    }
+
+    @Override
+    public AuthenticationManager resolve(HttpServletRequest request) {
+        String token = bearerTokenResolver.resolve(request);
+        return token != null && isJws(token) ? jwt : opaqueToken;
+    }
+
+    static boolean isJws(String token) {
+        if (!token.startsWith(JOSE_HEADER_PREFIX)) {
+            return false;
+        }
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        return second > first + 1 && token.indexOf('.', second + 1) < 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.philomath.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Records every authentication of {@code delegate} in {@link AuthenticationMetrics}.
+ */
+public class InstrumentedAuthenticationManager implements AuthenticationManager {
+
+    private final AuthenticationManager delegate;
+    private final AuthenticationMetrics metrics;
+
+    /**
+     * @param tokenType {@code jwt} or {@code opaque}
+     */
+    public InstrumentedAuthenticationManager(AuthenticationManager delegate, String tokenType, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.metrics = new AuthenticationMetrics(tokenType, meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        AuthenticationMetrics.Sample sample = metrics.start();
+        try {
+            Authentication result = delegate.authenticate(authentication);
+            metrics.success(sample, result);
+            return result;
+        } catch (RuntimeException e) {
+            metrics.failure(sample);
+            throw e;
+        }
+    }
+}
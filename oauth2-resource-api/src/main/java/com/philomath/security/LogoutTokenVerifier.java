@@ -0,0 +1,62 @@
+package com.philomath.security;
+
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.util.Map;
+
+/**
+ * Verifies OpenID Connect Back-Channel Logout tokens.
+ * <p>
+ * The signature, issuer and audience are checked by the {@link JwtDecoder} this is built with.
+ * On top of that, a logout token must carry the back-channel logout event, identify a subject
+ * or a session, and must not carry a {@code nonce} (which would make it an ID token).
+ */
+public class LogoutTokenVerifier {
+
+    public static final String BACKCHANNEL_LOGOUT_EVENT = "http://schemas.openid.net/event/backchannel-logout";
+
+    private final JwtDecoder decoder;
+
+    public LogoutTokenVerifier(JwtDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * @throws JwtException when the token is not a valid logout token
+     */
+    public LogoutToken verify(String logoutToken) {
+        return LogoutToken.of(decoder.decode(logoutToken));
+    }
+
+    /**
+     * Validator for the logout-specific claims, to be added to the decoder's validators.
+     */
+    public static OAuth2TokenValidatorResult validate(Jwt jwt) {
+        Map<String, Object> events = jwt.getClaimAsMap("events");
+        if (events == null || !events.containsKey(BACKCHANNEL_LOGOUT_EVENT)) {
+            return invalid("Missing back-channel logout event");
+        }
+        if (jwt.hasClaim("nonce")) {
+            return invalid("Logout token must not contain a nonce");
+        }
+        if (jwt.getSubject() == null && jwt.getClaimAsString("sid") == null) {
+            return invalid("Logout token must contain sub or sid");
+        }
+        return OAuth2TokenValidatorResult.success();
+    }
+
+    private static OAuth2TokenValidatorResult invalid(String description) {
+        return OAuth2TokenValidatorResult.failure(new OAuth2Error("invalid_request", description, null));
+    }
+
+    public record LogoutToken(String subject, String sessionId) {
+
+        static LogoutToken of(Jwt jwt) {
+            return new LogoutToken(jwt.getSubject(), jwt.getClaimAsString("sid"));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.philomath.security;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event for one bearer-token authentication. Only authentications slower than the
+ * threshold are recorded by default; lower it in the recording settings to see all of them.
+ */
+@Name("com.philomath.TokenAuthentication")
+@Label("Token Authentication")
+@Category({"Philomath", "Authentication"})
+@Description("Authentication of a bearer token, JWT or introspected")
+@Threshold("10 ms")
+@StackTrace(false)
+final class TokenAuthenticationEvent extends jdk.jfr.Event {
+
+    @Label("Token Type")
+    String tokenType;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Client Hash")
+    String client;
+}
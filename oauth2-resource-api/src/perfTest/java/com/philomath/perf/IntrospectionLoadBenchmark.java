@@ -0,0 +1,201 @@
+package com.philomath.perf;
+
+import com.philomath.Oauth2ResourceApiApplication;
+import com.philomath.keycloak.KeycloakStub;
+import com.philomath.loadgen.ClosedWorkload;
+import com.philomath.loadgen.LatencyStats;
+import com.philomath.loadgen.OpenWorkload;
+import com.philomath.loadgen.ReportWriter;
+import com.philomath.loadgen.RequestMix;
+import com.philomath.loadgen.RequestTemplate;
+import com.philomath.loadgen.WorkloadModel;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load benchmark for the opaque-token path of oauth2-resource-api.
+ * <p>
+ * Starts a {@link KeycloakStub} that verifies client assertions, boots the service in this JVM
+ * against it and drives {@code GET /api/me} with a loadgen workload. The report has the loadgen
+ * throughput and latency percentiles and the number of introspection calls the stub received per
+ * request, which is where cache settings show up.
+ * <pre>
+ * ./gradlew :oauth2-resource-api:introspectionBenchmark --args='--tokens 1000 --stub-latency-ms 50'
+ * ./gradlew :oauth2-resource-api:introspectionBenchmark --args='--model open --rate 2000 --app.auth.async.enabled true'
+ * </pre>
+ * Options, besides loadgen's {@code --model}, {@code --concurrency}, {@code --rate},
+ * {@code --arrivals}, {@code --warmup-seconds}, {@code --duration-seconds}, {@code --timeout-ms}
+ * and {@code --out} (default {@code build/reports/introspection-benchmark}):
+ * <ul>
+ *     <li>{@code --tokens} distinct tokens, each request picks one at random (default 1000);
+ *     0 sends a new token with every request, so every request is a cache miss</li>
+ *     <li>{@code --stub-latency-ms}, {@code --stub-jitter-ms} introspection delay (default 20, 0)</li>
+ *     <li>{@code --stub-error-rate}, {@code --stub-inactive-rate} fractions of 503s and inactive tokens (default 0)</li>
+ *     <li>any option with a dot, such as {@code --app.introspection.cache.max-ttl 30s}, is passed to the service</li>
+ * </ul>
+ */
+public class IntrospectionLoadBenchmark {
+
+    private static final String CLIENT_ID = "vite-test-api";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        String model = opts.getOrDefault("model", "closed");
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "64"));
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "0"));
+        boolean poisson = opts.getOrDefault("arrivals", "constant").equals("poisson");
+        Duration warmup = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup-seconds", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration-seconds", "30")));
+        Duration timeout = Duration.ofMillis(Long.parseLong(opts.getOrDefault("timeout-ms", "10000")));
+        int tokens = Integer.parseInt(opts.getOrDefault("tokens", "1000"));
+        Path out = Path.of(opts.getOrDefault("out", "build/reports/introspection-benchmark"));
+        Path keystore = Path.of(System.getProperty("perf.keystore"));
+
+        KeycloakStub keycloak = KeycloakStub.builder()
+                .latency(Duration.ofMillis(Long.parseLong(opts.getOrDefault("stub-latency-ms", "20"))))
+                .jitter(Duration.ofMillis(Long.parseLong(opts.getOrDefault("stub-jitter-ms", "0"))))
+                .errorRate(Double.parseDouble(opts.getOrDefault("stub-error-rate", "0")))
+                .inactiveRate(Double.parseDouble(opts.getOrDefault("stub-inactive-rate", "0")))
+                .clientAssertions(CLIENT_ID, publicKey(keystore))
+                .start();
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.security.oauth2.resourceserver.opaque-token.introspection-uri", keycloak.introspectionUri());
+        properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", keycloak.issuer());
+        properties.put("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", keycloak.jwkSetUri());
+        properties.put("app.keycloak.keystore.location", "file:" + keystore.toAbsolutePath());
+        opts.forEach((key, value) -> {
+            if (key.contains(".")) {
+                properties.put(key, value);
+            }
+        });
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(Service.class).properties(properties).run()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(callbacks)
+                    .build();
+            RequestMix mix = RequestMix.of(apiMe(tokens));
+            WorkloadModel workload = switch (model) {
+                case "open" -> new OpenWorkload(client, baseUrl, timeout, mix, rate, poisson);
+                case "closed" -> new ClosedWorkload(client, baseUrl, timeout, mix, concurrency, rate);
+                default -> throw new IllegalArgumentException("--model must be open or closed, got " + model);
+            };
+
+            LatencyStats stats = new LatencyStats();
+            if (!warmup.isZero()) {
+                System.out.println("Warming up for " + warmup.toSeconds() + "s: " + workload.describe());
+                workload.run(warmup, stats);
+                stats.reset();
+            }
+            long introspectionsBefore = keycloak.introspections();
+            System.out.println("Measuring for " + duration.toSeconds() + "s: " + workload.describe());
+            workload.run(duration, stats);
+            long introspections = keycloak.introspections() - introspectionsBefore;
+
+            Map<String, LatencyStats.Snapshot> snapshots = stats.snapshot();
+            String description = workload.describe() + ", " + describe(tokens, opts);
+            new ReportWriter(out).write(baseUrl, description, duration, snapshots);
+
+            LatencyStats.Snapshot all = snapshots.get("all");
+            double upstreamPerRequest = all.requests() == 0 ? 0 : introspections / (double) all.requests();
+            String summary = String.format(Locale.ROOT,
+                    "{\"requests\":%d,\"throughput\":%.1f,\"introspections\":%d,\"introspectionsPerRequest\":%.4f,"
+                            + "\"injectedErrors\":%d,\"rejectedClientAssertions\":%d,\"statuses\":%s}%n",
+                    all.requests(), all.requests() / (double) duration.toSeconds(), introspections, upstreamPerRequest,
+                    keycloak.injectedErrors(), keycloak.rejectedClientAssertions(), statuses(all));
+            Files.writeString(out.resolve("upstream.json"), summary);
+
+            System.out.printf(Locale.ROOT, "%d requests (%.1f req/s), %d errors, response time p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    all.requests(), all.requests() / (double) duration.toSeconds(), all.errors(),
+                    all.responseTime().getValueAtPercentile(50) / 1000.0,
+                    all.responseTime().getValueAtPercentile(99) / 1000.0,
+                    all.responseTime().getMaxValue() / 1000.0);
+            System.out.printf(Locale.ROOT, "%d introspection calls, %.4f per request, %d client assertions rejected%n",
+                    introspections, upstreamPerRequest, keycloak.rejectedClientAssertions());
+            System.out.println("Report: " + out.toAbsolutePath().resolve("report.html"));
+        } finally {
+            callbacks.shutdownNow();
+            keycloak.close();
+        }
+    }
+
+    /**
+     * {@code GET /api/me} with a token drawn from a pool of {@code tokens}, or a new one each time.
+     */
+    private static RequestTemplate apiMe(int tokens) {
+        AtomicLong fresh = new AtomicLong();
+        return new RequestTemplate("api-me", "GET", "/api/me", null, builder -> {
+            long id = tokens > 0 ? ThreadLocalRandom.current().nextInt(tokens) : fresh.incrementAndGet();
+            builder.header("Authorization", "Bearer bench-" + id);
+        });
+    }
+
+    private static String describe(int tokens, Map<String, String> opts) {
+        return (tokens > 0 ? tokens + " tokens" : "new token per request")
+                + ", stub latency " + opts.getOrDefault("stub-latency-ms", "20") + " ms";
+    }
+
+    private static String statuses(LatencyStats.Snapshot snapshot) {
+        StringBuilder json = new StringBuilder("{");
+        snapshot.statuses().forEach((status, count) -> {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(status).append("\":").append(count);
+        });
+        return json.append('}').toString();
+    }
+
+    private static PublicKey publicKey(Path keystore) throws Exception {
+        try (InputStream in = Files.newInputStream(keystore)) {
+            KeyStore ks = KeyStore.getInstance("JKS");
+            ks.load(in, CLIENT_ID.toCharArray());
+            return ks.getCertificate(CLIENT_ID).getPublicKey();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    /**
+     * The service without the perfTest allocation filter, which the component scan would
+     * otherwise pick up from this classpath.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @ComponentScan(basePackageClasses = Oauth2ResourceApiApplication.class, excludeFilters = @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE, classes = {Oauth2ResourceApiApplication.class, PerfTestConfiguration.class}))
+    static class Service {
+    }
+}
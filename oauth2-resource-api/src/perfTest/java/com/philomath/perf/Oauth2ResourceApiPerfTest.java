@@ -0,0 +1,86 @@
+package com.philomath.perf;
+
+import com.philomath.keycloak.KeycloakStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Latency and allocation budgets for the resource server, with token introspection and the
+ * JWKS served by an in-process {@link KeycloakStub}. The client-assertion keystore is generated by the
+ * {@code generatePerfKeystore} task and passed in as the {@code perf.keystore} system property.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(PerfTestConfiguration.class)
+class Oauth2ResourceApiPerfTest {
+
+    private static final KeycloakStub keycloak;
+    private static PerfRunner runner;
+
+    static {
+        try {
+            keycloak = KeycloakStub.start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start the Keycloak stub", e);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AllocationRecordingFilter allocations;
+
+    @DynamicPropertySource
+    static void keycloakProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.opaque-token.introspection-uri", keycloak::introspectionUri);
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", keycloak::issuer);
+        registry.add("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", keycloak::jwkSetUri);
+        registry.add("app.keycloak.keystore.location", () -> "file:" + System.getProperty("perf.keystore"));
+    }
+
+    static Stream<PerfScenario> scenarios() {
+        return Stream.of(
+                PerfScenario.get("public-ping", "/public/ping", 200),
+                // Same token every time: measures the steady state of an authenticated client
+                PerfScenario.get("api-me", "/api/me", 200).withHeader("Authorization", "Bearer perf-token"),
+                PerfScenario.get("api-me-inactive", "/api/me", 401)
+                        .withHeader("Authorization", "Bearer " + KeycloakStub.INACTIVE_PREFIX + "token"),
+                // JWT verified locally against the cached JWKS, no introspection
+                PerfScenario.get("api-me-jwt", "/api/me", 200)
+                        .withHeader("Authorization", "Bearer " + keycloak.issueAccessToken("perf-user", Duration.ofHours(1)))
+        );
+    }
+
+    @BeforeEach
+    void setUp() {
+        if (runner == null) {
+            runner = new PerfRunner("http://localhost:" + port, allocations, PerfBudgets.load());
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("scenarios")
+    void staysWithinBudget(PerfScenario scenario) {
+        runner.runAndCheck(scenario);
+    }
+
+    @AfterAll
+    static void writeReport() {
+        if (runner != null) {
+            runner.writeReport("oauth2-resource-api");
+        }
+        keycloak.close();
+    }
+}
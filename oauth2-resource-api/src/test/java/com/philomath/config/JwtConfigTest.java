@@ -0,0 +1,147 @@
+package com.philomath.config;
+
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.philomath.introspection.RevocationIndex;
+import com.philomath.security.LogoutTokenVerifier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtConfigTest {
+
+    private static final String ISSUER = "http://keycloak.test/realms/vite";
+    private static final String CLIENT_ID = "vite-test-api";
+
+    private static RSAKey key;
+    private static LogoutTokenVerifier logoutTokens;
+    private static JwtDecoder accessTokens;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        key = new RSAKeyGenerator(2048).keyID("realm-key").generate();
+        OAuth2ResourceServerProperties props = new OAuth2ResourceServerProperties();
+        props.getJwt().setIssuerUri(ISSUER);
+        props.getOpaquetoken().setClientId(CLIENT_ID);
+        ImmutableJWKSet<SecurityContext> jwkSource = new ImmutableJWKSet<>(new JWKSet(key.toPublicJWK()));
+        logoutTokens = new JwtConfig().logoutTokenVerifier(jwkSource, props);
+        accessTokens = new JwtConfig().jwtDecoder(jwkSource, props, new JwtConfig.JwtProps(true, true, null),
+                new RevocationIndex(Duration.ofMinutes(15)));
+    }
+
+    @Test
+    void acceptsAccessTokenForThisApi() throws Exception {
+        assertEquals("user-1", accessTokens.decode(accessToken("Bearer", List.of(CLIENT_ID, "account"))).getSubject());
+    }
+
+    @Test
+    void rejectsOtherTokensOfTheRealm() {
+        assertThrows(JwtException.class, () -> accessTokens.decode(accessToken("ID", List.of(CLIENT_ID))));
+        assertThrows(JwtException.class, () -> accessTokens.decode(accessToken("Refresh", List.of(CLIENT_ID))));
+        assertThrows(JwtException.class, () -> accessTokens.decode(accessToken(null, List.of(CLIENT_ID))));
+    }
+
+    @Test
+    void rejectsAccessTokenForAnotherClient() {
+        assertThrows(JwtException.class, () -> accessTokens.decode(accessToken("Bearer", List.of("account"))));
+    }
+
+    @Test
+    void audienceDefaultsToClientIdAndIsRequired() {
+        OAuth2ResourceServerProperties props = new OAuth2ResourceServerProperties();
+        JwtConfig.JwtProps required = new JwtConfig.JwtProps(true, true, null);
+        props.getOpaquetoken().setClientId(CLIENT_ID);
+        assertIterableEquals(List.of(CLIENT_ID), JwtConfig.accessTokenAudiences(props, required));
+
+        props.getJwt().setAudiences(List.of("orders-api"));
+        assertIterableEquals(List.of("orders-api"), JwtConfig.accessTokenAudiences(props, required));
+
+        OAuth2ResourceServerProperties none = new OAuth2ResourceServerProperties();
+        assertThrows(IllegalStateException.class, () -> JwtConfig.accessTokenAudiences(none, required));
+        assertIterableEquals(List.of(), JwtConfig.accessTokenAudiences(none, new JwtConfig.JwtProps(true, false, null)));
+    }
+
+    @Test
+    void acceptsKeycloakLogoutToken() throws Exception {
+        LogoutTokenVerifier.LogoutToken token = logoutTokens.verify(keycloakLogoutToken(JwtConfig.LOGOUT_TOKEN_TYPE));
+
+        assertEquals("user-1", token.subject());
+        assertEquals("session-1", token.sessionId());
+    }
+
+    @Test
+    void acceptsLogoutTokenTypedAsJwtOrUntyped() throws Exception {
+        assertEquals("session-1", logoutTokens.verify(keycloakLogoutToken(JOSEObjectType.JWT)).sessionId());
+        assertEquals("session-1", logoutTokens.verify(keycloakLogoutToken(null)).sessionId());
+    }
+
+    @Test
+    void rejectsOtherTokenTypes() {
+        assertThrows(JwtException.class, () -> logoutTokens.verify(keycloakLogoutToken(new JOSEObjectType("at+jwt"))));
+    }
+
+    /**
+     * A token signed by the realm, with Keycloak's {@code typ} claim ({@code Bearer} for access tokens).
+     */
+    private static String accessToken(String keycloakType, List<String> audience) throws Exception {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .audience(audience)
+                .subject("user-1")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(300)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("typ", keycloakType)
+                .claim("azp", "vite-test-app")
+                .claim("scope", "openid profile")
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    /**
+     * A logout token as Keycloak sends it to the back-channel logout URL.
+     */
+    private static String keycloakLogoutToken(JOSEObjectType type) throws Exception {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .audience(CLIENT_ID)
+                .subject("user-1")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(120)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("typ", "Logout")
+                .claim("sid", "session-1")
+                .claim("events", Map.of(LogoutTokenVerifier.BACKCHANNEL_LOGOUT_EVENT, Map.of()))
+                .claim("revoke_offline_access", false)
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(type).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
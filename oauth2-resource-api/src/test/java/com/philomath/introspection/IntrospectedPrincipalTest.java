@@ -0,0 +1,52 @@
+package com.philomath.introspection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.philomath.security.AuthorityMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IntrospectedPrincipalTest {
+
+    private static final String KEYCLOAK_RESPONSE = """
+            {"active":true,"sub":"user-1","username":"alice","client_id":"vite-test-app","azp":"vite-test-app",
+             "scope":"openid profile","token_type":"Bearer","iss":"http://keycloak.test/realms/vite",
+             "aud":["vite-test-api","account"],"jti":"jti-1","sid":"session-1","exp":1900000000,"iat":1899999700,
+             "realm_access":{"roles":["admin","user"]},"resource_access":{"account":{"roles":["view-profile"]}},
+             "email":"alice@example.com"}
+            """;
+
+    private final IntrospectionResponseParser parser = new IntrospectionResponseParser(new JsonFactory(), new AuthorityMapper());
+
+    @Test
+    void attributeLookupMatchesAttributeMap() throws Exception {
+        IntrospectedPrincipal principal = parser.parse(KEYCLOAK_RESPONSE.getBytes(StandardCharsets.UTF_8));
+
+        principal.getAttributes().forEach((name, value) -> assertEquals(value, principal.getAttribute(name), name));
+        assertEquals(Map.of("roles", List.of("admin", "user")), principal.getAttribute("realm_access"));
+        // Dropped claims are missing from both views
+        assertNull(principal.getAttribute("resource_access"));
+        assertNull(principal.getAttributes().get("resource_access"));
+        assertNull(principal.getAttribute("email"));
+    }
+
+    @Test
+    void serializesNameAuthoritiesAndAttributesOnly() throws Exception {
+        IntrospectedPrincipal principal = parser.parse(KEYCLOAK_RESPONSE.getBytes(StandardCharsets.UTF_8));
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+        Map<?, ?> json = mapper.readValue(mapper.writeValueAsString(principal), Map.class);
+
+        assertEquals(Set.of("name", "authorities", "attributes"), json.keySet());
+        assertEquals("user-1", json.get("name"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.philomath.introspection;
+
+import com.philomath.security.AuthorityMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PrincipalSnapshotCodecTest {
+
+    private static final String CACHE_KEY = TokenHashes.sha256("opaque-token");
+
+    private final AuthorityMapper authorityMapper = new AuthorityMapper();
+    private final PrincipalSnapshotCodec codec = new PrincipalSnapshotCodec(key((byte) 1), authorityMapper);
+
+    @Test
+    void roundTripsPrincipalAndTimes() throws Exception {
+        PrincipalSnapshotCodec.Snapshot snapshot = snapshot();
+
+        PrincipalSnapshotCodec.Snapshot decoded = codec.decode(CACHE_KEY, codec.encode(CACHE_KEY, snapshot));
+
+        assertEquals(snapshot.introspectedAt(), decoded.introspectedAt());
+        assertEquals(snapshot.freshUntil(), decoded.freshUntil());
+        assertEquals(snapshot.expiresAt(), decoded.expiresAt());
+        assertEquals(snapshot.principal().getAttributes(), decoded.principal().getAttributes());
+        // Rebuilt by this replica's mapper, not read from the store
+        assertEquals(authorityMapper.authorities("openid profile", List.of("admin")), decoded.principal().getAuthorities());
+    }
+
+    @Test
+    void roundTripsInactiveToken() throws Exception {
+        Instant now = Instant.ofEpochMilli(System.currentTimeMillis());
+        PrincipalSnapshotCodec.Snapshot inactive = new PrincipalSnapshotCodec.Snapshot(null, now, now, now.plusSeconds(30));
+
+        assertNull(codec.decode(CACHE_KEY, codec.encode(CACHE_KEY, inactive)).principal());
+    }
+
+    @Test
+    void rejectsValueStoredUnderAnotherKey() throws Exception {
+        // A value copied to another token's entry fails authentication of the cache key
+        byte[] value = codec.encode(CACHE_KEY, snapshot());
+
+        assertThrows(AEADBadTagException.class, () -> codec.decode(TokenHashes.sha256("other-token"), value));
+    }
+
+    @Test
+    void rejectsTamperedCiphertextAndTag() throws Exception {
+        byte[] value = codec.encode(CACHE_KEY, snapshot());
+
+        assertThrows(AEADBadTagException.class, () -> codec.decode(CACHE_KEY, flip(value, 1)));
+        assertThrows(AEADBadTagException.class, () -> codec.decode(CACHE_KEY, flip(value, 20)));
+        assertThrows(AEADBadTagException.class, () -> codec.decode(CACHE_KEY, flip(value, value.length - 1)));
+    }
+
+    @Test
+    void rejectsValueEncryptedWithAnotherKey() throws Exception {
+        byte[] value = new PrincipalSnapshotCodec(key((byte) 2), authorityMapper).encode(CACHE_KEY, snapshot());
+
+        assertThrows(AEADBadTagException.class, () -> codec.decode(CACHE_KEY, value));
+    }
+
+    @Test
+    void rejectsUnknownFormat() throws Exception {
+        byte[] value = codec.encode(CACHE_KEY, snapshot());
+        value[0] = 2;
+
+        assertThrows(IOException.class, () -> codec.decode(CACHE_KEY, value));
+        assertThrows(IOException.class, () -> codec.decode(CACHE_KEY, new byte[]{1, 0, 0}));
+    }
+
+    @Test
+    void rejectsKeyOfInvalidLength() {
+        assertThrows(IllegalArgumentException.class, () -> new PrincipalSnapshotCodec(new byte[20], authorityMapper));
+    }
+
+    private PrincipalSnapshotCodec.Snapshot snapshot() {
+        // Times as precise as the codec stores them: millis for the snapshot, seconds for claims
+        Instant now = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+        List<String> realmRoles = List.of("admin");
+        IntrospectedPrincipal principal = new IntrospectedPrincipal("user-1", "alice", "vite-test-app", "vite-test-app",
+                "openid profile", "Bearer", "http://keycloak.test/realms/vite", List.of("vite-test-api", "account"),
+                "jti-1", "session-1", now.plusSeconds(300), now, null, realmRoles,
+                authorityMapper.authorities("openid profile", realmRoles));
+        return new PrincipalSnapshotCodec.Snapshot(principal, now, now.plusSeconds(60), now.plusSeconds(300));
+    }
+
+    private static byte[] flip(byte[] value, int index) {
+        byte[] copy = value.clone();
+        copy[index] ^= 0x01;
+        return copy;
+    }
+
+    private static byte[] key(byte fill) {
+        byte[] key = new byte[32];
+        Arrays.fill(key, fill);
+        return key;
+    }
+}
@@ -0,0 +1,235 @@
+package com.philomath.introspection;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.philomath.introspection.StaleWhileRevalidateTest.PendingIntrospector;
+import com.philomath.security.AuthorityMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.philomath.introspection.StaleWhileRevalidateTest.principal;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Revocations racing introspections, locally and across replicas sharing one store.
+ */
+class RevocationIndexTest {
+
+    private static final String TOKEN = "opaque-token";
+
+    private final InMemoryIntrospectionStore store = new InMemoryIntrospectionStore(100);
+    private final PrincipalSnapshotCodec codec = new PrincipalSnapshotCodec(new byte[32], new AuthorityMapper());
+    private final Replica a = new Replica();
+    private final Replica b = new Replica();
+
+    @Test
+    void tokenRevokedDuringIntrospectionIsNotCached() {
+        CompletableFuture<OAuth2AuthenticatedPrincipal> pending = a.introspector.introspectAsync(TOKEN);
+
+        assertEquals(1, a.revocations.revokeToken(TOKEN));
+        a.keycloak.calls.get(0).complete(principal("session-1"));
+
+        assertInactive(pending);
+        // Answered after the revocation: neither cached nor shared
+        assertNull(store.get(TokenHashes.sha256(TOKEN)).join());
+        a.introspector.introspectAsync(TOKEN);
+        assertEquals(2, a.keycloak.calls.size());
+    }
+
+    @Test
+    void subjectRevokedDuringIntrospectionIsNotCached() {
+        CompletableFuture<OAuth2AuthenticatedPrincipal> pending = a.introspector.introspectAsync(TOKEN);
+
+        // Not indexed yet: nothing to evict, but the revocation is remembered
+        assertEquals(0, a.revocations.revokeSubject("user-1"));
+        a.keycloak.calls.get(0).complete(principal("session-1"));
+
+        assertInactive(pending);
+        assertInactive(a.introspector.introspectAsync(TOKEN));
+        assertEquals(1, a.keycloak.calls.size());
+    }
+
+    @Test
+    void subjectRevocationEvictsEveryTokenOfTheSubject() {
+        cache(a, TOKEN, principal("session-1"));
+        cache(a, "other-token", principal("session-2"));
+
+        assertEquals(2, a.revocations.revokeSubject("user-1"));
+
+        a.introspector.introspectAsync(TOKEN);
+        a.introspector.introspectAsync("other-token");
+        assertEquals(4, a.keycloak.calls.size());
+    }
+
+    @Test
+    void revocationOnOneReplicaEvictsOnTheOthers() {
+        cache(a, TOKEN, principal("session-1"));
+
+        // b never saw the token; a applies the broadcast to its own index, cache and the store
+        assertEquals(0, b.revocations.revokeSession("session-1"));
+
+        assertNull(store.get(TokenHashes.sha256(TOKEN)).join());
+        a.introspector.introspectAsync(TOKEN);
+        assertEquals(2, a.keycloak.calls.size());
+    }
+
+    @Test
+    void sharedEntryIsServedToOtherReplicas() {
+        IntrospectedPrincipal first = cache(a, TOKEN, principal("session-1"));
+
+        OAuth2AuthenticatedPrincipal fromShared = b.introspector.introspectAsync(TOKEN).join();
+
+        assertEquals(first.getName(), fromShared.getName());
+        assertEquals("session-1", fromShared.getAttribute("sid"));
+        assertEquals(0, b.keycloak.calls.size());
+    }
+
+    @Test
+    void sharedEntryIntrospectedBeforeSubjectRevocationIsIgnored() {
+        b.revocations.revokeSubject("user-1");
+        // A write from a replica whose introspection started before the revocation, landing after it
+        writeShared(TOKEN, principal("session-1"), Instant.now().minusSeconds(1));
+
+        b.introspector.introspectAsync(TOKEN);
+
+        assertEquals(1, b.keycloak.calls.size());
+    }
+
+    @Test
+    void sharedEntryIntrospectedBeforeTokenRevocationIsIgnored() {
+        b.revocations.revokeToken(TOKEN);
+        writeShared(TOKEN, principal("session-1"), Instant.now().minusSeconds(1));
+
+        b.introspector.introspectAsync(TOKEN);
+
+        assertEquals(1, b.keycloak.calls.size());
+    }
+
+    @Test
+    void revocationRightAfterTheCheckOfAFirstIntrospectionEvictsIt() {
+        RevokingAfterCheck revocations = new RevokingAfterCheck();
+        PendingIntrospector keycloak = new PendingIntrospector();
+        CachingOpaqueTokenIntrospector introspector = local(keycloak, revocations, Duration.ofMinutes(5), Duration.ZERO);
+
+        CompletableFuture<OAuth2AuthenticatedPrincipal> pending = introspector.introspectAsync(TOKEN);
+        revocations.revokeAfterNextCheck = true;
+        keycloak.calls.get(0).complete(principal("session-1"));
+
+        // The caller that raced the revocation may still get the answer, but it is not cached
+        pending.join();
+        introspector.introspectAsync(TOKEN);
+        assertEquals(2, keycloak.calls.size());
+    }
+
+    @Test
+    void revocationDuringRevalidationIsNotUndoneByTheRefresh() throws InterruptedException {
+        RevokingAfterCheck revocations = new RevokingAfterCheck();
+        PendingIntrospector keycloak = new PendingIntrospector();
+        CachingOpaqueTokenIntrospector introspector = local(keycloak, revocations, Duration.ofMillis(50), Duration.ofSeconds(10));
+        CompletableFuture<OAuth2AuthenticatedPrincipal> first = introspector.introspectAsync(TOKEN);
+        keycloak.calls.get(0).complete(principal("session-1"));
+        first.join();
+        Thread.sleep(100);
+
+        // Stale: served at once while a refresh starts
+        introspector.introspectAsync(TOKEN);
+        assertEquals(2, keycloak.calls.size());
+        // The revocation lands after the refresh passed its check, before it is put in the cache
+        revocations.revokeAfterNextCheck = true;
+        keycloak.calls.get(1).complete(principal("session-1"));
+
+        introspector.introspectAsync(TOKEN);
+        assertEquals(3, keycloak.calls.size());
+    }
+
+    private static CachingOpaqueTokenIntrospector local(PendingIntrospector keycloak, RevocationIndex revocations,
+                                                        Duration maxTtl, Duration staleGrace) {
+        AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> cache =
+                CachingOpaqueTokenIntrospector.cacheBuilder(100)
+                        .removalListener(revocations::onRemoval)
+                        .executor(Runnable::run)
+                        .buildAsync();
+        revocations.attach(cache);
+        return new CachingOpaqueTokenIntrospector(keycloak, cache, revocations, maxTtl,
+                Duration.ofSeconds(30), Duration.ofSeconds(5), staleGrace);
+    }
+
+    private static IntrospectedPrincipal cache(Replica replica, String token, IntrospectedPrincipal principal) {
+        int call = replica.keycloak.calls.size();
+        CompletableFuture<OAuth2AuthenticatedPrincipal> pending = replica.introspector.introspectAsync(token);
+        replica.keycloak.calls.get(call).complete(principal);
+        assertSame(principal, pending.join());
+        return principal;
+    }
+
+    private void writeShared(String token, IntrospectedPrincipal principal, Instant introspectedAt) {
+        Instant now = Instant.now();
+        a.tier.put(TokenHashes.sha256(token),
+                new PrincipalSnapshotCodec.Snapshot(principal, introspectedAt, now.plusSeconds(60), now.plusSeconds(60)));
+    }
+
+    private static void assertInactive(CompletableFuture<OAuth2AuthenticatedPrincipal> introspection) {
+        CompletionException failure = assertThrows(CompletionException.class, introspection::join);
+        assertInstanceOf(BadOpaqueTokenException.class, failure.getCause());
+    }
+
+    /**
+     * Revokes the subject right after a check found it not revoked, the narrowest race there is.
+     */
+    private static final class RevokingAfterCheck extends RevocationIndex {
+
+        volatile boolean revokeAfterNextCheck;
+
+        RevokingAfterCheck() {
+            super(Duration.ofMinutes(15));
+        }
+
+        @Override
+        boolean isRevoked(OAuth2AuthenticatedPrincipal principal, Instant since) {
+            boolean revoked = super.isRevoked(principal, since);
+            if (!revoked && revokeAfterNextCheck) {
+                revokeAfterNextCheck = false;
+                revokeSubject(principal.getAttribute("sub"));
+            }
+            return revoked;
+        }
+    }
+
+    /**
+     * One service instance: its own Keycloak calls, near cache and index, on the shared store.
+     */
+    private final class Replica {
+
+        final PendingIntrospector keycloak = new PendingIntrospector();
+        final RevocationIndex revocations = new RevocationIndex(Duration.ofMinutes(15));
+        final SharedIntrospectionTier tier;
+        final CachingOpaqueTokenIntrospector introspector;
+
+        Replica() {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            tier = new SharedIntrospectionTier(store, codec, Duration.ofSeconds(1),
+                    registry.counter("hits"), registry.counter("misses"), registry.counter("errors"),
+                    registry.counter("write_errors"));
+            // Removal listener on the calling thread, so the index is up to date when a call returns
+            AsyncCache<String, CachingOpaqueTokenIntrospector.CachedIntrospection> cache =
+                    CachingOpaqueTokenIntrospector.cacheBuilder(100)
+                            .removalListener(revocations::onRemoval)
+                            .executor(Runnable::run)
+                            .buildAsync();
+            revocations.attach(cache);
+            revocations.attach(tier);
+            introspector = new CachingOpaqueTokenIntrospector(keycloak, cache, revocations, tier,
+                    Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofSeconds(5), Duration.ZERO);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.philomath.introspection;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link CachingOpaqueTokenIntrospector} with a stale grace period.
+ */
+class StaleWhileRevalidateTest {
+
+    private static final Duration MAX_TTL = Duration.ofMillis(50);
+    private static final String TOKEN = "opaque-token";
+
+    private final PendingIntrospector keycloak = new PendingIntrospector();
+    private final CachingOpaqueTokenIntrospector introspector = new CachingOpaqueTokenIntrospector(keycloak,
+            CachingOpaqueTokenIntrospector.cacheBuilder(100).buildAsync(), new RevocationIndex(Duration.ofMinutes(15)),
+            MAX_TTL, Duration.ofSeconds(30), Duration.ofSeconds(5), Duration.ofSeconds(10));
+
+    @Test
+    void servesStaleEntryWhileOneRefreshRuns() throws Exception {
+        OAuth2AuthenticatedPrincipal first = cacheThenGoStale();
+
+        // Answered at once from the stale entry; the second request does not start another refresh
+        assertSame(first, introspector.introspectAsync(TOKEN).getNow(null));
+        assertSame(first, introspector.introspectAsync(TOKEN).getNow(null));
+        assertEquals(2, keycloak.calls.size());
+
+        IntrospectedPrincipal refreshed = principal("session-2");
+        keycloak.calls.get(1).complete(refreshed);
+
+        assertSame(refreshed, introspector.introspectAsync(TOKEN).getNow(null));
+        assertEquals(2, keycloak.calls.size());
+    }
+
+    @Test
+    void keepsServingStaleEntryWhenRefreshFails() throws Exception {
+        OAuth2AuthenticatedPrincipal first = cacheThenGoStale();
+
+        introspector.introspectAsync(TOKEN);
+        keycloak.calls.get(1).completeExceptionally(new OAuth2IntrospectionException("Keycloak is down"));
+
+        assertSame(first, introspector.introspectAsync(TOKEN).getNow(null));
+        // The failed refresh no longer blocks the next one
+        assertEquals(3, keycloak.calls.size());
+    }
+
+    @Test
+    void dropsStaleEntryWhenRefreshFindsTokenInactive() throws Exception {
+        cacheThenGoStale();
+
+        introspector.introspectAsync(TOKEN);
+        keycloak.calls.get(1).completeExceptionally(new BadOpaqueTokenException("Token is not active"));
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> introspector.introspectAsync(TOKEN).join());
+        assertInstanceOf(BadOpaqueTokenException.class, failure.getCause());
+    }
+
+    private OAuth2AuthenticatedPrincipal cacheThenGoStale() throws InterruptedException {
+        CompletableFuture<OAuth2AuthenticatedPrincipal> pending = introspector.introspectAsync(TOKEN);
+        IntrospectedPrincipal first = principal("session-1");
+        keycloak.calls.get(0).complete(first);
+        assertSame(first, pending.join());
+
+        Thread.sleep(MAX_TTL.toMillis() * 2);
+        assertEquals(1, keycloak.calls.size());
+        return first;
+    }
+
+    static IntrospectedPrincipal principal(String sid) {
+        Instant now = Instant.now();
+        return new IntrospectedPrincipal("user-1", "alice", "vite-test-app", "vite-test-app", "openid", "Bearer",
+                "http://keycloak.test/realms/vite", List.of("vite-test-api"), "jti-" + sid, sid,
+                now.plusSeconds(3600), now, null, List.of(), List.of());
+    }
+
+    /**
+     * Introspector whose calls stay pending until the test completes them.
+     */
+    static final class PendingIntrospector implements AsyncOpaqueTokenIntrospector {
+
+        final List<CompletableFuture<OAuth2AuthenticatedPrincipal>> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<OAuth2AuthenticatedPrincipal> introspectAsync(String token) {
+            CompletableFuture<OAuth2AuthenticatedPrincipal> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.philomath.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HybridAuthenticationManagerResolverTest {
+
+    // {"alg":"RS256","typ":"JWT","kid":"realm-key"}
+    private static final String HEADER = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCIsImtpZCI6InJlYWxtLWtleSJ9";
+
+    @Test
+    void acceptsCompactJws() {
+        assertTrue(HybridAuthenticationManagerResolver.isJws(HEADER + ".eyJzdWIiOiJ1c2VyLTEifQ.c2lnbmF0dXJl"));
+    }
+
+    @Test
+    void rejectsOpaqueTokens() {
+        // Keycloak lightweight/opaque token shapes and random strings
+        assertFalse(HybridAuthenticationManagerResolver.isJws("8f1b2c3d-4e5f-6a7b-8c9d-0e1f2a3b4c5d"));
+        assertFalse(HybridAuthenticationManagerResolver.isJws("eyJhbGciOiJSUzI1NiJ9"));
+        assertFalse(HybridAuthenticationManagerResolver.isJws(""));
+    }
+
+    @Test
+    void rejectsJwe() {
+        // Five parts: header, encrypted key, IV, ciphertext, tag
+        assertFalse(HybridAuthenticationManagerResolver.isJws(HEADER + ".a2V5.aXY.Y2lwaGVydGV4dA.dGFn"));
+    }
+
+    @Test
+    void rejectsWrongPartCountOrEmptyPayload() {
+        assertFalse(HybridAuthenticationManagerResolver.isJws(HEADER + ".eyJzdWIiOiJ1c2VyLTEifQ"));
+        assertFalse(HybridAuthenticationManagerResolver.isJws(HEADER + "..c2lnbmF0dXJl"));
+        assertFalse(HybridAuthenticationManagerResolver.isJws(HEADER + ".eyJzdWIiOiJ1c2VyLTEifQ.c2ln.bmF0"));
+    }
+
+    @Test
+    void rejectsHeaderThatIsNotJson() {
+        assertFalse(HybridAuthenticationManagerResolver.isJws("YWJj.eyJzdWIiOiJ1c2VyLTEifQ.c2lnbmF0dXJl"));
+        assertFalse(HybridAuthenticationManagerResolver.isJws(".eyJzdWIiOiJ1c2VyLTEifQ.c2lnbmF0dXJl"));
+    }
+}
@@ -0,0 +1,377 @@
+package com.philomath.keycloak;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Keycloak realm {@code vite-test}.
+ * <p>
+ * Answers requests on {@link #introspectionUri()} after an optional latency. Tokens starting with
+ * {@value #INACTIVE_PREFIX} are reported inactive; everything else is active unless
+ * {@link Builder#inactiveRate} says otherwise. For load tests, {@link #builder()} can also:
+ * <ul>
+ *     <li>add random jitter to the latency</li>
+ *     <li>fail a fraction of calls with 503</li>
+ *     <li>report a fraction of tokens inactive. The choice is made per token, so repeated calls
+ *     for one token agree</li>
+ *     <li>verify the {@code private_key_jwt} client assertion the way Keycloak does: signature,
+ *     {@code iss} = {@code sub} = client id, audience, expiry and single use of the {@code jti}.
+ *     A bad assertion gets 401 {@code invalid_client}</li>
+ * </ul>
+ * Without a client key, assertions are not checked.
+ * <p>
+ * It also publishes a JWKS on {@link #jwkSetUri()} and signs JWT access tokens with the matching
+ * key ({@link #issueAccessToken}), for the local JWT validation path.
+ */
+public class KeycloakStub implements AutoCloseable {
+
+    public static final String INACTIVE_PREFIX = "inactive-";
+
+    private static final String CLIENT_ASSERTION_TYPE = "urn:ietf:params:oauth:client-assertion-type:jwt-bearer";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong introspections = new AtomicLong();
+    private final AtomicLong jwksFetches = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong rejectedClientAssertions = new AtomicLong();
+    private final Map<String, Instant> usedAssertionIds = new ConcurrentHashMap<>();
+    private final RSAKey signingKey;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final double inactiveRate;
+    private final String clientId;
+    private final PublicKey clientKey;
+
+    private KeycloakStub(Builder builder) throws IOException {
+        this.latency = builder.latency;
+        this.jitter = builder.jitter;
+        this.errorRate = builder.errorRate;
+        this.inactiveRate = builder.inactiveRate;
+        this.clientId = builder.clientId;
+        this.clientKey = builder.clientKey;
+        try {
+            signingKey = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to generate the signing key", e);
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/realms/vite-test/protocol/openid-connect/certs", exchange -> {
+            jwksFetches.incrementAndGet();
+            respondJson(exchange, new JWKSet(signingKey.toPublicJWK()).toString());
+        });
+        server.createContext("/realms/vite-test/protocol/openid-connect/token/introspect", exchange -> {
+            introspections.incrementAndGet();
+            Map<String, String> form = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            pause();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                respondJson(exchange, 503, "{\"error\":\"temporarily_unavailable\"}");
+                return;
+            }
+            String rejection = clientKey != null ? checkClientAssertion(form) : null;
+            if (rejection != null) {
+                rejectedClientAssertions.incrementAndGet();
+                respondJson(exchange, 401, "{\"error\":\"invalid_client\",\"error_description\":\"" + rejection + "\"}");
+                return;
+            }
+            respondJson(exchange, introspectionResponse(form.getOrDefault("token", "")));
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static KeycloakStub start() throws IOException {
+        return builder().start();
+    }
+
+    public static KeycloakStub start(Duration latency) throws IOException {
+        return builder().latency(latency).start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String introspectionUri() {
+        return issuer() + "/protocol/openid-connect/token/introspect";
+    }
+
+    public String issuer() {
+        return "http://localhost:" + server.getAddress().getPort() + "/realms/vite-test";
+    }
+
+    public String jwkSetUri() {
+        return issuer() + "/protocol/openid-connect/certs";
+    }
+
+    /**
+     * A JWT access token for {@code subject}, signed with the key published on {@link #jwkSetUri()}.
+     */
+    public String issueAccessToken(String subject, Duration ttl) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject(subject)
+                // Keycloak adds the API with an audience mapper on the calling client
+                .audience(List.of("vite-test-api", "account"))
+                .claim("typ", "Bearer")
+                .claim("azp", "vite-test-app")
+                .claim("scope", "openid profile")
+                .claim("preferred_username", subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(ttl)))
+                .jwtID(UUID.randomUUID().toString())
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .type(JOSEObjectType.JWT)
+                .keyID(signingKey.getKeyID())
+                .build(), claims);
+        try {
+            jwt.sign(new RSASSASigner(signingKey));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to sign access token", e);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * Number of introspection calls received so far.
+     */
+    public long introspections() {
+        return introspections.get();
+    }
+
+    /**
+     * Introspection calls answered with an injected 503.
+     */
+    public long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    /**
+     * Introspection calls refused because of their client assertion.
+     */
+    public long rejectedClientAssertions() {
+        return rejectedClientAssertions.get();
+    }
+
+    /**
+     * Number of JWKS fetches received so far.
+     */
+    public long jwksFetches() {
+        return jwksFetches.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void pause() {
+        long millis = latency.toMillis();
+        if (!jitter.isZero()) {
+            millis += ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Why Keycloak would refuse the client assertion of this request, or {@code null}.
+     */
+    private String checkClientAssertion(Map<String, String> form) {
+        if (!CLIENT_ASSERTION_TYPE.equals(form.get("client_assertion_type"))) {
+            return "client_assertion_type missing";
+        }
+        String formClientId = form.get("client_id");
+        if (formClientId != null && !formClientId.equals(clientId)) {
+            return "client_id does not match the assertion";
+        }
+        SignedJWT assertion;
+        JWTClaimsSet claims;
+        try {
+            assertion = SignedJWT.parse(form.getOrDefault("client_assertion", ""));
+            claims = assertion.getJWTClaimsSet();
+        } catch (ParseException e) {
+            return "client_assertion is not a signed JWT";
+        }
+        if (!verifySignature(assertion)) {
+            return "Invalid client assertion signature";
+        }
+        if (!clientId.equals(claims.getIssuer()) || !clientId.equals(claims.getSubject())) {
+            return "iss and sub must be the client id";
+        }
+        if (claims.getAudience().stream().noneMatch(List.of(issuer(), tokenUri(), introspectionUri())::contains)) {
+            return "Invalid token audience";
+        }
+        Date exp = claims.getExpirationTime();
+        Instant now = Instant.now();
+        if (exp == null || !exp.toInstant().isAfter(now)) {
+            return "Client assertion expired";
+        }
+        String jti = claims.getJWTID();
+        if (jti == null || usedAssertionIds.putIfAbsent(jti, exp.toInstant()) != null) {
+            return "Client assertion jti missing or already used";
+        }
+        if (usedAssertionIds.size() > 100_000) {
+            usedAssertionIds.values().removeIf(expiry -> expiry.isBefore(now));
+        }
+        return null;
+    }
+
+    private boolean verifySignature(SignedJWT assertion) {
+        try {
+            if (JWSAlgorithm.EdDSA.equals(assertion.getHeader().getAlgorithm())) {
+                // Nimbus verifies Ed25519 only through Tink; the JDK provider does it without
+                Signature signature = Signature.getInstance("Ed25519");
+                signature.initVerify(clientKey);
+                signature.update(assertion.getSigningInput());
+                return signature.verify(assertion.getSignature().decode());
+            }
+            JWSVerifier verifier = new DefaultJWSVerifierFactory().createJWSVerifier(assertion.getHeader(), clientKey);
+            return assertion.verify(verifier);
+        } catch (JOSEException | GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private String tokenUri() {
+        return issuer() + "/protocol/openid-connect/token";
+    }
+
+    private static Map<String, String> parseForm(String form) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void respondJson(HttpExchange exchange, String json) throws IOException {
+        respondJson(exchange, 200, json);
+    }
+
+    private static void respondJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private String introspectionResponse(String token) {
+        if (token.startsWith(INACTIVE_PREFIX) || isDrawnInactive(token)) {
+            return "{\"active\":false}";
+        }
+        long now = Instant.now().getEpochSecond();
+        return "{\"active\":true,\"sub\":\"perf-user\",\"client_id\":\"vite-test-app\",\"scope\":\"openid profile\","
+                + "\"username\":\"perf-user\",\"token_type\":\"Bearer\",\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}";
+    }
+
+    private boolean isDrawnInactive(String token) {
+        return inactiveRate > 0 && (token.hashCode() & 0x7fffffff) % 10_000 < inactiveRate * 10_000;
+    }
+
+    public static final class Builder {
+
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private double errorRate;
+        private double inactiveRate;
+        private String clientId;
+        private PublicKey clientKey;
+
+        private Builder() {
+        }
+
+        /**
+         * Fixed delay before every introspection response.
+         */
+        public Builder latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Uniformly distributed extra delay, from zero up to {@code jitter}.
+         */
+        public Builder jitter(Duration jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Fraction (0..1) of introspection calls answered with 503.
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Fraction (0..1) of tokens reported inactive.
+         */
+        public Builder inactiveRate(double inactiveRate) {
+            this.inactiveRate = inactiveRate;
+            return this;
+        }
+
+        /**
+         * Verify client assertions as signed by {@code clientId} with the private half of {@code publicKey}.
+         */
+        public Builder clientAssertions(String clientId, PublicKey publicKey) {
+            this.clientId = clientId;
+            this.clientKey = publicKey;
+            return this;
+        }
+
+        public KeycloakStub start() throws IOException {
+            return new KeycloakStub(this);
+        }
+    }
+}
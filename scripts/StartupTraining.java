@@ -0,0 +1,276 @@
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * CDS training run and startup-time report for the fast-startup build (gradle/fast-startup.gradle).
+ * <p>
+ * {@code train}: boots the extracted application with {@code -XX:ArchiveClassesAtExit}, replays
+ * the requests from a {@code .requests} file, so the classes loaded while handling real requests
+ * (Jackson serializers, Hibernate Validator metadata, springdoc) end up in the archive, and stops
+ * the JVM so it writes the archive on exit.
+ * <p>
+ * {@code report}: boots each variant several times and records the time until the readiness
+ * probe answers and the "Started ... in N seconds" figure Spring Boot logs:
+ * <ul>
+ *     <li>{@code fat-jar}: {@code java -jar} on the boot jar, the normal boot</li>
+ *     <li>{@code extracted}: the extracted layout, no AOT, no CDS</li>
+ *     <li>{@code extracted+aot}: with {@code -Dspring.aot.enabled=true}</li>
+ *     <li>{@code extracted+aot+cds}: also with the trained {@code -XX:SharedArchiveFile}</li>
+ * </ul>
+ * Single-file program, run with {@code java scripts/StartupTraining.java train|report --jar ...}.
+ */
+public class StartupTraining {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("train") || args[0].equals("report"))) {
+            throw new IllegalArgumentException("Usage: StartupTraining train|report --jar <extracted jar> ...");
+        }
+        Map<String, String> opts = parse(Arrays.copyOfRange(args, 1, args.length));
+        List<TrainingRequest> requests = readRequests(Path.of(require(opts, "requests")));
+
+        HttpServer keycloak = Boolean.parseBoolean(opts.getOrDefault("keycloak-stub", "false"))
+                ? startIntrospectionStub() : null;
+        try {
+            if (args[0].equals("train")) {
+                train(opts, requests, keycloak);
+            } else {
+                report(opts, requests, keycloak);
+            }
+        } finally {
+            if (keycloak != null) {
+                keycloak.stop(0);
+            }
+        }
+    }
+
+    private static void train(Map<String, String> opts, List<TrainingRequest> requests, HttpServer keycloak) throws Exception {
+        Path jar = Path.of(require(opts, "jar"));
+        Path archive = Path.of(require(opts, "archive")).toAbsolutePath();
+        int rounds = Integer.parseInt(opts.getOrDefault("rounds", "20"));
+        Files.deleteIfExists(archive);
+
+        List<String> jvmArgs = List.of("-XX:ArchiveClassesAtExit=" + archive, "-Dspring.aot.enabled=true");
+        Path log = archive.resolveSibling("training.log");
+        int port = freePort();
+        Process app = start(opts, jar, jvmArgs, port, keycloak, log);
+        try {
+            String base = "http://localhost:" + port;
+            awaitReady(base + requests.get(0).path(), Duration.ofSeconds(120));
+            HttpClient client = HttpClient.newHttpClient();
+            Map<String, Integer> statuses = new TreeMap<>();
+            for (int round = 0; round < rounds; round++) {
+                for (TrainingRequest request : requests) {
+                    HttpResponse<Void> response = client.send(request.toHttpRequest(base), HttpResponse.BodyHandlers.discarding());
+                    statuses.merge(request.method() + " " + request.path() + " -> " + response.statusCode(), 1, Integer::sum);
+                }
+            }
+            statuses.forEach((request, count) -> System.out.println("  " + request + " x" + count));
+        } finally {
+            stop(app);
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("The JVM did not write " + archive + ", see " + log);
+        }
+        System.out.println("Wrote " + archive + " (" + Files.size(archive) / 1024 / 1024 + " MB)");
+    }
+
+    private static void report(Map<String, String> opts, List<TrainingRequest> requests, HttpServer keycloak) throws Exception {
+        Path fatJar = Path.of(require(opts, "fat-jar"));
+        Path jar = Path.of(require(opts, "jar"));
+        Path archive = Path.of(require(opts, "archive")).toAbsolutePath();
+        Path out = Path.of(require(opts, "out"));
+        int runs = Integer.parseInt(opts.getOrDefault("runs", "5"));
+        Files.createDirectories(out.getParent());
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("fat-jar", List.of());
+        variants.put("extracted", List.of());
+        variants.put("extracted+aot", List.of("-Dspring.aot.enabled=true"));
+        variants.put("extracted+aot+cds", List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive));
+
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            Path variantJar = variant.getKey().equals("fat-jar") ? fatJar : jar;
+            long[] ready = new long[runs];
+            double[] started = new double[runs];
+            for (int run = 0; run < runs; run++) {
+                Path log = out.resolveSibling(variant.getKey().replace('+', '-') + "-" + run + ".log");
+                int port = freePort();
+                long begin = System.nanoTime();
+                Process app = start(opts, variantJar, variant.getValue(), port, keycloak, log);
+                try {
+                    awaitReady("http://localhost:" + port + requests.get(0).path(), Duration.ofSeconds(120));
+                    ready[run] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+                } finally {
+                    stop(app);
+                }
+                started[run] = startedSeconds(log);
+                System.out.printf(Locale.ROOT, "[%s] run %d: ready after %d ms%n", variant.getKey(), run + 1, ready[run]);
+            }
+            Arrays.sort(ready);
+            Arrays.sort(started);
+            results.add(new Result(variant.getKey(), ready[runs / 2], started[runs / 2]));
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Startup time: ").append(fatJar.getFileName()).append("\n\n");
+        sb.append("Median of ").append(runs).append(" boots per variant on ").append(Runtime.version())
+                .append(", ").append(Instant.now()).append(".\n\n");
+        sb.append("| variant | ready (ms) | Spring \"Started in\" (s) | vs fat-jar |\n");
+        sb.append("|---------|-----------:|-------------------------:|-----------:|\n");
+        long baseline = results.get(0).readyMillis();
+        for (Result r : results) {
+            sb.append(String.format(Locale.ROOT, "| %s | %d | %s | %+.0f%% |%n", r.variant(), r.readyMillis(),
+                    r.startedSeconds() < 0 ? "n/a" : String.format(Locale.ROOT, "%.3f", r.startedSeconds()),
+                    (r.readyMillis() - baseline) * 100.0 / baseline));
+        }
+        Files.writeString(out, sb.toString());
+        System.out.println(sb);
+    }
+
+    private static Process start(Map<String, String> opts, Path jar, List<String> jvmArgs, int port,
+                                 HttpServer keycloak, Path log) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        if (keycloak != null) {
+            command.add("--spring.security.oauth2.resourceserver.opaque-token.introspection-uri=http://localhost:"
+                    + keycloak.getAddress().getPort() + "/introspect");
+            // oauth2-resource-api serves actuator on its own port; pick a free one like server.port
+            command.add("--management.server.port=0");
+        }
+        if (opts.containsKey("keystore")) {
+            command.add("--app.keycloak.keystore.location=file:" + Path.of(opts.get("keystore")).toAbsolutePath());
+        }
+        Files.createDirectories(log.toAbsolutePath().getParent());
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static void stop(Process app) throws InterruptedException {
+        // SIGTERM: a normal JVM exit, which is when -XX:ArchiveClassesAtExit writes the archive
+        app.destroy();
+        if (!app.waitFor(60, TimeUnit.SECONDS)) {
+            app.destroyForcibly();
+        }
+    }
+
+    private static void awaitReady(String url, Duration timeout) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> r = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (r.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("Service did not become ready at " + url);
+    }
+
+    private static double startedSeconds(Path log) throws IOException {
+        Matcher m = STARTED.matcher(Files.readString(log));
+        return m.find() ? Double.parseDouble(m.group(1)) : -1;
+    }
+
+    private static HttpServer startIntrospectionStub() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+        server.createContext("/introspect", exchange -> {
+            long now = Instant.now().getEpochSecond();
+            byte[] body = ("{\"active\":true,\"sub\":\"training\",\"client_id\":\"training-client\",\"scope\":\"openid\","
+                    + "\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static List<TrainingRequest> readRequests(Path file) throws IOException {
+        Path root = Path.of("").toAbsolutePath();
+        List<TrainingRequest> requests = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+");
+            byte[] body = parts.length > 2 ? Files.readAllBytes(root.resolve(parts[2])) : null;
+            requests.add(new TrainingRequest(parts[0], parts[1], body));
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No requests in " + file);
+        }
+        return requests;
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new java.net.ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static String require(Map<String, String> opts, String key) {
+        String value = opts.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + key);
+        }
+        return value;
+    }
+
+    record TrainingRequest(String method, String path, byte[] body) {
+
+        HttpRequest toHttpRequest(String base) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", "Bearer training-token");
+            if (body == null) {
+                return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+            }
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }
+    }
+
+    record Result(String variant, long readyMillis, double startedSeconds) {
+    }
+}
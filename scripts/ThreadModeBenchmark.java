@@ -0,0 +1,287 @@
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares platform-thread and virtual-thread request handling for oauth2-resource-api.
+ * <p>
+ * Starts an introspection stub with a fixed response latency, boots the service jar once per
+ * mode against it and drives GET /api/me with a closed-loop load (N clients, each sending its
+ * next request as soon as the previous one completes). Every request carries a fresh token, so
+ * each one pays the blocking introspection round-trip. The virtual-thread run is recorded with
+ * JFR and the number of jdk.VirtualThreadPinned events is reported next to the latencies.
+ * <p>
+ * The introspection bulkhead, its connection pool and its wait timeout are raised to match the
+ * concurrency (see {@link #introspectionOverrides}), so they do not shed or fail requests before
+ * the request threads are what limits throughput. The overrides are listed in the report.
+ * <p>
+ * Single-file program, run with {@code java scripts/ThreadModeBenchmark.java --jar ... --keystore ...}
+ * (see scripts/thread-mode-benchmark.sh). The virtual-thread mode needs a Java 21+ runtime.
+ */
+public class ThreadModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parse(args);
+        Path jar = Path.of(require(opts, "jar"));
+        Path keystore = Path.of(require(opts, "keystore"));
+        int concurrency = Integer.parseInt(opts.getOrDefault("concurrency", "400"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup-seconds", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration-seconds", "20")));
+        long stubLatencyMs = Long.parseLong(opts.getOrDefault("stub-latency-ms", "100"));
+        Path outDir = Path.of(opts.getOrDefault("out", "build/reports/thread-mode-benchmark"));
+        Files.createDirectories(outDir);
+
+        HttpServer stub = startIntrospectionStub(stubLatencyMs);
+        List<Result> results = new ArrayList<>();
+        try {
+            for (String mode : opts.getOrDefault("modes", "platform,virtual").split(",")) {
+                if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+                    System.out.println("Skipping virtual-thread mode: needs Java 21+, running on " + Runtime.version());
+                    continue;
+                }
+                results.add(runMode(mode, jar, keystore, stub.getAddress().getPort(), concurrency, warmup, duration, outDir));
+            }
+        } finally {
+            stub.stop(0);
+        }
+
+        String report = report(results, concurrency, stubLatencyMs, duration);
+        Files.writeString(outDir.resolve("report.md"), report);
+        System.out.println(report);
+    }
+
+    private static Result runMode(String mode, Path jar, Path keystore, int stubPort, int concurrency,
+                                  Duration warmup, Duration duration, Path outDir) throws Exception {
+        int port = freePort();
+        Path jfr = outDir.resolve(mode + ".jfr").toAbsolutePath();
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        if (mode.equals("virtual")) {
+            command.add("-Djdk.tracePinnedThreads=short");
+            command.add("-XX:StartFlightRecording=filename=" + jfr + ",settings=profile,dumponexit=true");
+        }
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.add("--spring.security.oauth2.resourceserver.opaque-token.introspection-uri=http://localhost:" + stubPort + "/introspect");
+        command.add("--app.keycloak.keystore.location=file:" + keystore.toAbsolutePath());
+        introspectionOverrides(concurrency).forEach((name, value) -> command.add("--" + name + "=" + value));
+        if (mode.equals("virtual")) {
+            command.add("--spring.profiles.active=virtual-threads");
+        }
+
+        File log = outDir.resolve(mode + ".log").toFile();
+        Process app = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        Result result;
+        try {
+            String base = "http://localhost:" + port;
+            awaitUp(base + "/public/ping", Duration.ofSeconds(90));
+            System.out.println("[" + mode + "] warming up for " + warmup.toSeconds() + "s");
+            load(base + "/api/me", concurrency, warmup);
+            System.out.println("[" + mode + "] measuring for " + duration.toSeconds() + "s at concurrency " + concurrency);
+            result = load(base + "/api/me", concurrency, duration);
+        } finally {
+            // SIGTERM lets the JVM dump the JFR recording on exit
+            app.destroy();
+            app.waitFor(30, TimeUnit.SECONDS);
+            app.destroyForcibly();
+        }
+        return result.with(mode, countPinnedEvents(jfr));
+    }
+
+    private static Result load(String url, int concurrency, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        AtomicLong tokens = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<long[]>> samples = new ArrayList<>();
+        long[] errors = new long[1];
+        for (int i = 0; i < concurrency; i++) {
+            samples.add(workers.submit(() -> {
+                long[] latencies = new long[1024];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                            .header("Authorization", "Bearer bench-" + tokens.incrementAndGet())
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            synchronized (errors) {
+                                errors[0]++;
+                            }
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        synchronized (errors) {
+                            errors[0]++;
+                        }
+                        continue;
+                    }
+                    if (n == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, n * 2);
+                    }
+                    latencies[n++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, n);
+            }));
+        }
+        workers.shutdown();
+
+        long[] all = new long[0];
+        for (Future<long[]> f : samples) {
+            long[] part = f.get();
+            long[] merged = Arrays.copyOf(all, all.length + part.length);
+            System.arraycopy(part, 0, merged, all.length, part.length);
+            all = merged;
+        }
+        Arrays.sort(all);
+        return new Result(null, all.length, errors[0], all.length / (double) duration.toSeconds(),
+                percentile(all, 50), percentile(all, 90), percentile(all, 99),
+                all.length == 0 ? 0 : all[all.length - 1], -1);
+    }
+
+    private static HttpServer startIntrospectionStub(long latencyMs) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/introspect", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long now = Instant.now().getEpochSecond();
+            byte[] body = ("{\"active\":true,\"sub\":\"bench\",\"client_id\":\"bench-client\",\"scope\":\"openid\","
+                    + "\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    private static void awaitUp(String url, Duration timeout) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<Void> r = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (r.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Service did not come up at " + url);
+    }
+
+    private static long countPinnedEvents(Path jfr) {
+        if (!Files.exists(jfr)) {
+            return -1;
+        }
+        try {
+            return RecordingFile.readAllEvents(jfr).stream()
+                    .map(RecordedEvent::getEventType)
+                    .filter(t -> t.getName().equals("jdk.VirtualThreadPinned"))
+                    .count();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Service settings that would otherwise cap the load below the requested concurrency: the
+     * introspection bulkhead (default 40) and connection pool (default 50) fail requests fast
+     * once full, and the default 5 s introspection wait is shorter than the client's timeout.
+     */
+    private static Map<String, String> introspectionOverrides(int concurrency) {
+        Map<String, String> overrides = new LinkedHashMap<>();
+        overrides.put("app.introspection.max-concurrent", Integer.toString(concurrency));
+        overrides.put("app.introspection.http.max-connections", Integer.toString(concurrency));
+        overrides.put("app.introspection.timeout", "30s");
+        return overrides;
+    }
+
+    private static String report(List<Result> results, int concurrency, long stubLatencyMs, Duration duration) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Thread mode benchmark: GET /api/me\n\n");
+        sb.append("Concurrency ").append(concurrency)
+                .append(", introspection latency ").append(stubLatencyMs).append(" ms")
+                .append(", measured ").append(duration.toSeconds()).append(" s per mode\n\n");
+        sb.append("Service overrides for both modes:");
+        introspectionOverrides(concurrency).forEach((name, value) ->
+                sb.append(" `--").append(name).append('=').append(value).append('`'));
+        sb.append("\n\n");
+        sb.append("| mode | requests | errors | req/s | p50 ms | p90 ms | p99 ms | max ms | pinned events |\n");
+        sb.append("|------|---------:|-------:|------:|-------:|-------:|-------:|-------:|--------------:|\n");
+        for (Result r : results) {
+            sb.append(String.format(Locale.ROOT, "| %s | %d | %d | %.1f | %.1f | %.1f | %.1f | %.1f | %s |%n",
+                    r.mode(), r.requests(), r.errors(), r.throughput(),
+                    r.p50() / 1e6, r.p90() / 1e6, r.p99() / 1e6, r.max() / 1e6,
+                    r.pinnedEvents() < 0 ? "n/a" : Long.toString(r.pinnedEvents())));
+        }
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new java.net.ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    private static String require(Map<String, String> opts, String key) {
+        String value = opts.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + key);
+        }
+        return value;
+    }
+
+    record Result(String mode, long requests, long errors, double throughput,
+                  long p50, long p90, long p99, long max, long pinnedEvents) {
+
+        Result with(String mode, long pinnedEvents) {
+            return new Result(mode, requests, errors, throughput, p50, p90, p99, max, pinnedEvents);
+        }
+    }
+}
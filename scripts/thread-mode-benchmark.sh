@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+# Benchmark oauth2-resource-api request handling on platform threads vs virtual threads.
+#
+# Usage: scripts/thread-mode-benchmark.sh [--concurrency 400] [--duration-seconds 20] [--stub-latency-ms 100]
+#
+# Requires a Java 21+ `java` on the PATH for the virtual-thread run (the platform run works on 17).
+# Report and JFR recordings are written to build/reports/thread-mode-benchmark/.
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+./gradlew -q :oauth2-resource-api:bootJar
+
+out=build/reports/thread-mode-benchmark
+mkdir -p "$out"
+keystore="$out/keystore.jks"
+if [ ! -f "$keystore" ]; then
+  # Throwaway signing key for client assertions; the stub does not verify them
+  keytool -genkeypair -alias vite-test-api -keyalg RSA -keysize 2048 -validity 30 \
+    -dname "CN=thread-mode-benchmark" -storetype JKS -keystore "$keystore" \
+    -storepass vite-test-api -keypass vite-test-api >/dev/null
+fi
+
+jar=$(ls oauth2-resource-api/build/libs/*.jar | grep -v -- '-plain.jar' | head -n 1)
+java scripts/ThreadModeBenchmark.java --jar "$jar" --keystore "$keystore" --out "$out" "$@"